@@ -0,0 +1,86 @@
+package net.virtalab.logger.bench;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of single parts of record: timestamp, caller class name, whole text line and JSON line
+ * (former getTimeStamp, getCallerClassName and makeString).
+ * Every layout is measured from call to bytes given to sink, so cost of part is difference to layout "msg".
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComponentsBenchmark {
+    private static final String TAG = "BENCH";
+
+    @Param({"msg", "time", "class", "default", "json"})
+    public String layout;
+
+    @Setup
+    public void setUp(){
+        Log.reset();
+        Log.init(LogLevel.DEBUG);
+        if("msg".equals(layout)){
+            Log.setLayout("%msg");
+        } else if("time".equals(layout)){
+            Log.setLayout("%time %msg");
+        } else if("class".equals(layout)){
+            Log.setLayout("%class %msg");
+        } else if("json".equals(layout)){
+            Log.enableJsonLayout();
+        }
+        Log.changeSinkForLevel(LogLevel.DEBUG, new NullSink());
+    }
+
+    @TearDown
+    public void tearDown(){
+        Log.reset();
+    }
+
+    @Benchmark
+    public void logDebug(){
+        Log.d(TAG, "enabled message");
+    }
+
+    /**
+     * Sink, which drops records
+     */
+    private static final class NullSink implements Sink {
+        @Override
+        public void write(LogLevel level, ByteBuffer record){
+            ((Buffer) record).position(record.limit());
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+}
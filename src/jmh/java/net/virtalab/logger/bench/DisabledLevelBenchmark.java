@@ -0,0 +1,65 @@
+package net.virtalab.logger.bench;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of calls, which are filtered out by log level
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisabledLevelBenchmark {
+    private static final String TAG = "BENCH";
+
+    private final Logger logger = Logger.getLogger(TAG);
+    private int counter;
+
+    @Setup
+    public void setUp(){
+        NullStreams.install();
+        Log.init(LogLevel.INFO);
+        Logger.init(LogLevel.INFO);
+    }
+
+    @TearDown
+    public void tearDown(){
+        Logger.resetLogLevel();
+        NullStreams.restore();
+    }
+
+    @Benchmark
+    public void logDebug(){
+        Log.d(TAG, "disabled message");
+    }
+
+    @Benchmark
+    public void logDebugTemplate(){
+        Log.d(TAG, "counter={}", counter++);
+    }
+
+    @Benchmark
+    public void loggerDebug(){
+        logger.debug("disabled message");
+    }
+}
@@ -0,0 +1,84 @@
+package net.virtalab.logger.bench;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of printed records, from call to bytes given to (null) stream
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnabledLevelBenchmark {
+    private static final String TAG = "BENCH";
+
+    @Param({"true", "false"})
+    public boolean letter;
+
+    @Param({"true", "false"})
+    public boolean time;
+
+    @Param({"true", "false"})
+    public boolean className;
+
+    private final Logger logger = Logger.getLogger(TAG);
+    private final Throwable throwable = new IllegalStateException("benchmark");
+
+    @Setup
+    public void setUp(){
+        NullStreams.install();
+        Log.init(LogLevel.TRACE);
+        Logger.init(LogLevel.TRACE);
+        if(!letter){
+            Log.noLetter();
+        }
+        if(!time){
+            Log.noTime();
+        }
+        if(!className){
+            Log.noClassName();
+        }
+    }
+
+    @TearDown
+    public void tearDown(){
+        Logger.resetLogLevel();
+        NullStreams.restore();
+    }
+
+    @Benchmark
+    public void logDebug(){
+        Log.d(TAG, "enabled message");
+    }
+
+    @Benchmark
+    public void logErrorWithThrowable(){
+        Log.e(TAG, "failure", throwable);
+    }
+
+    @Benchmark
+    public void loggerInfo(){
+        logger.info("enabled message");
+    }
+}
@@ -0,0 +1,56 @@
+package net.virtalab.logger.bench;
+
+import net.virtalab.logger.Log;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Replaces {@link System#out} and {@link System#err} with streams, which drop everything,
+ * so benchmarks measure logger and not console
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class NullStreams {
+    private static PrintStream out;
+    private static PrintStream err;
+
+    private NullStreams(){
+    }
+
+    /**
+     * Installs null streams and resets {@link Log}, so its default sinks use them
+     */
+    static synchronized void install(){
+        if(out==null){
+            out = System.out;
+            err = System.err;
+        }
+        PrintStream nothing = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b){
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len){
+            }
+        });
+        System.setOut(nothing);
+        System.setErr(nothing);
+        Log.reset();
+    }
+
+    /**
+     * Brings original streams back
+     */
+    static synchronized void restore(){
+        Log.reset();
+        if(out!=null){
+            System.setOut(out);
+            System.setErr(err);
+            out = null;
+            err = null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writer thread for async mode of {@link Log}.
+ * Callers put captured log objects to bounded queue, this thread formats and publishes them.
+ * Single consumer keeps records of every producer thread in their original order.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+class AsyncWriter implements Runnable {
+    /**
+     * Name of writer thread
+     */
+    static final String THREAD_NAME = "virtalab-logger-writer";
+
+    /**
+     * Marker, which tells writer thread to stop
+     */
+    private static final Log.LogObject STOP = new Log.LogObject(null);
+
+    private final BlockingQueue<Log.LogObject> queue;
+    private final Thread thread;
+    private final Thread shutdownHook;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts writer thread
+     *
+     * @param queueSize max number of records waiting for writer
+     */
+    AsyncWriter(int queueSize){
+        this.queue = new ArrayBlockingQueue<Log.LogObject>(queueSize);
+
+        this.thread = new Thread(this, THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        this.shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                shutdown();
+            }
+        }, THREAD_NAME + "-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Puts log object to queue. Waits if queue is full, even when thread is interrupted: interrupt is kept for caller.
+     *
+     * @param l captured log object
+     * @return true if object queued, false if caller should write it by itself
+     */
+    boolean enqueue(Log.LogObject l){
+        //writer thread cannot wait for itself
+        if(Thread.currentThread()==thread){
+            return false;
+        }
+        //stopped writer won't take anything, but older records must go first
+        if(!running){
+            awaitStop();
+            return false;
+        }
+        //writing it here would put it before records already queued, so interrupt only waits for queue to be left
+        boolean interrupted = false;
+        while(true){
+            try {
+                queue.put(l);
+                break;
+            } catch (InterruptedException e){
+                interrupted = true;
+            }
+        }
+        if(interrupted){
+            Thread.currentThread().interrupt();
+        }
+        //writer may have been stopped while we were putting
+        if(!running){
+            awaitStop();
+        }
+        return true;
+    }
+
+    /**
+     * Stops writer thread and publishes everything left in queue
+     */
+    void shutdown(){
+        if(running){
+            running = false;
+            //no interrupt here: it would break I/O the writer may be doing right now
+            boolean interrupted = false;
+            while(true){
+                try {
+                    queue.put(STOP);
+                    break;
+                } catch (InterruptedException e){
+                    interrupted = true;
+                }
+            }
+            if(interrupted){
+                Thread.currentThread().interrupt();
+            }
+        }
+        awaitStop();
+        //records of last batch may still wait in block of binary log
+        Log.flush();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e){
+            //JVM is shutting down already, hook is running or has run
+        }
+    }
+
+    /**
+     * Waits until writer thread finishes and publishes records queued while it was stopping
+     */
+    private void awaitStop(){
+        boolean interrupted = false;
+        while(thread.isAlive() && Thread.currentThread()!=thread){
+            try {
+                thread.join();
+            } catch (InterruptedException e){
+                interrupted = true;
+            }
+        }
+        drain();
+        if(interrupted){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run(){
+        while(true){
+            Log.LogObject l;
+            try {
+                l = queue.take();
+            } catch (InterruptedException e){
+                continue;
+            }
+            if(l==STOP){ break; }
+            queueWait(l);
+            write(l);
+            //batch is over: let buffering sinks write it out at once
+            if(queue.isEmpty()){
+                Log.flushSinks();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Publishes all records currently in queue
+     */
+    private synchronized void drain(){
+        List<Log.LogObject> rest = new ArrayList<Log.LogObject>(queue.size());
+        queue.drainTo(rest);
+        for(Log.LogObject l : rest){
+            if(l!=STOP){
+                queueWait(l);
+                write(l);
+            }
+        }
+        if(!rest.isEmpty()){
+            Log.flushSinks();
+        }
+    }
+
+    /**
+     * Provides number of records waiting in queue
+     *
+     * @return queue depth
+     */
+    int depth(){
+        return queue.size();
+    }
+
+    /**
+     * Records time log object spent in queue, if metrics are enabled
+     *
+     * @param l log object taken from queue
+     */
+    private static void queueWait(Log.LogObject l){
+        LogMetrics m = l.config.metrics;
+        if(m!=null && l.queuedAt!=0){
+            m.queueWait.record(System.nanoTime() - l.queuedAt);
+        }
+    }
+
+    /**
+     * Publishes single record, so that broken record doesn't kill writer thread.
+     * Failure is counted as error of sinks, record hasn't reached.
+     *
+     * @param l log object
+     */
+    private void write(Log.LogObject l){
+        try {
+            Log.write(l);
+        } catch (RuntimeException e){
+            //same as PrintStream: logging never throws, failure is only seen in metrics
+            LogMetrics m = l.config.metrics;
+            Sink[] sinks = l.config.sinkMatrix.get(l.level);
+            if(m!=null && sinks!=null){
+                for(Sink sink : sinks){
+                    m.sink(sink).errors.increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package net.virtalab.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Writes records in compact binary form instead of text. Read back by {@link BinaryLogDecoder}.
+ * <br>
+ * Nothing is formatted at write time: record keeps level, timestamp, ids of class name, tag and template
+ * and raw values of arguments. Records are collected into blocks. Every block has its own dictionary
+ * (string gets id at its first use inside block) and CRC32 checksum, so damaged block doesn't spoil others.
+ * <br>
+ * Block is written out when it is full, when its oldest record waits for {@link #BLOCK_DELAY_MILLIS},
+ * on {@link Log#flush()}, by group commit and at JVM exit. Small blocks repeat dictionary, so batches of
+ * async writer don't cut blocks.
+ * <br>
+ * File: magic "VLBL", version byte, then blocks: [int length][int crc32][payload].
+ * Payload is sequence of entries: STRING (new dictionary entry) or RECORD.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class BinaryLog implements Runnable {
+    static final String THREAD_NAME = "virtalab-logger-binary";
+    static final byte[] MAGIC = {'V', 'L', 'B', 'L'};
+    static final byte VERSION = 1;
+
+    //entries
+    static final byte STRING = 1;
+    static final byte RECORD = 2;
+
+    //argument types
+    static final byte ARG_NULL = 0;
+    static final byte ARG_STRING = 1;
+    static final byte ARG_INT = 2;
+    static final byte ARG_LONG = 3;
+    static final byte ARG_DOUBLE = 4;
+    static final byte ARG_FLOAT = 5;
+    static final byte ARG_BOOLEAN = 6;
+    static final byte ARG_CHAR = 7;
+    static final byte ARG_TEXT = 8;
+
+    /**
+     * Block is written out when it grows above this size
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Block header: length and checksum
+     */
+    static final int BLOCK_HEADER = 8;
+
+    /**
+     * Max time record waits in block before block is written out
+     */
+    static final long BLOCK_DELAY_MILLIS = 1000;
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private final StringBuilder text = new StringBuilder();
+
+    private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+    private byte[] block = new byte[BLOCK_SIZE + BLOCK_HEADER];
+    private int pos = BLOCK_HEADER;
+    private long lastTimestamp;
+    /**
+     * When first record of current block was written (millis), 0 if block is empty
+     */
+    private long blockStarted;
+
+    private final Thread thread;
+    private final Thread shutdownHook;
+    private volatile boolean running = true;
+
+    /**
+     * Opens file for appending
+     *
+     * @param file binary log file
+     * @throws IOException if file cannot be opened
+     */
+    BinaryLog(File file) throws IOException {
+        this.channel = new FileOutputStream(file, true).getChannel();
+        if(channel.size()==0){
+            ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 1);
+            header.put(MAGIC).put(VERSION);
+            ((Buffer) header).flip();
+            while(header.hasRemaining()){
+                channel.write(header);
+            }
+        }
+        this.thread = new Thread(this, THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        //last block keeps last records, usually the ones, which tell why JVM exits
+        this.shutdownHook = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (IOException e){
+                    //nothing to report to at exit
+                }
+            }
+        }, THREAD_NAME + "-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Encodes record into current block
+     *
+     * @param l log object
+     * @return encoded size of record with its new dictionary entries
+     * @throws IOException if full block cannot be written
+     */
+    synchronized int write(Log.LogObject l) throws IOException {
+        int start = pos;
+        int classId = id(l.className);
+        int tagId = id(l.tag);
+        int templateId = id(l.template!=null ? l.template.getTemplate() : l.message);
+
+        if(blockStarted==0){
+            blockStarted = System.currentTimeMillis();
+        }
+        put(RECORD);
+        put((byte) (l.level.ordinal() | (l.wtf ? 0x10 : 0)));
+        putVarLong(zigzag(l.timestamp - lastTimestamp));
+        lastTimestamp = l.timestamp;
+        putVarInt(classId);
+        putVarInt(tagId);
+        putVarInt(templateId);
+
+        Object[] args = l.template!=null ? l.args : null;
+        int argCount = args==null ? 0 : args.length;
+        putVarInt(argCount);
+        for(int i=0;i<argCount;i++){
+            putArg(args[i]);
+        }
+        if(l.th==null){
+            put((byte) 0);
+        } else {
+            put((byte) 1);
+            text.setLength(0);
+            Layout.appendStackTrace(l.th, l.config, text);
+            putString(text);
+        }
+        int size = pos - start;
+        if(pos - BLOCK_HEADER >= BLOCK_SIZE){
+            writeBlock();
+        }
+        return size;
+    }
+
+    /**
+     * Writes current block, even if it is not full
+     *
+     * @throws IOException on write error
+     */
+    synchronized void flush() throws IOException {
+        if(pos > BLOCK_HEADER){
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes current block and forces file to storage device
+     *
+     * @throws IOException on write error
+     */
+    synchronized void sync() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    synchronized void close() throws IOException {
+        running = false;
+        thread.interrupt();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e){
+            //JVM is shutting down already, hook is running or has run
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void run(){
+        while(running){
+            try {
+                Thread.sleep(BLOCK_DELAY_MILLIS / 2);
+            } catch (InterruptedException e){
+                return;
+            }
+            try {
+                flushLate();
+            } catch (IOException e){
+                //same as PrintStream: logging never throws
+            }
+        }
+    }
+
+    /**
+     * Writes current block, if its oldest record waits too long
+     */
+    private synchronized void flushLate() throws IOException {
+        if(running && pos > BLOCK_HEADER && System.currentTimeMillis() - blockStarted >= BLOCK_DELAY_MILLIS){
+            writeBlock();
+        }
+    }
+
+    /**
+     * Provides id of string in block dictionary, adds string to dictionary at its first use
+     *
+     * @param s string, may be null
+     * @return 0 for null, id+1 otherwise
+     */
+    private int id(String s){
+        if(s==null){ return 0; }
+        Integer id = dictionary.get(s);
+        if(id==null){
+            id = dictionary.size();
+            dictionary.put(s, id);
+            put(STRING);
+            putString(s);
+        }
+        return id + 1;
+    }
+
+    private void putArg(Object arg){
+        if(arg==null){
+            put(ARG_NULL);
+        } else if(arg instanceof String){
+            put(ARG_STRING);
+            putString((String) arg);
+        } else if(arg instanceof Integer || arg instanceof Short || arg instanceof Byte){
+            put(ARG_INT);
+            putVarLong(zigzag(((Number) arg).intValue()));
+        } else if(arg instanceof Long){
+            put(ARG_LONG);
+            putVarLong(zigzag((Long) arg));
+        } else if(arg instanceof Double){
+            put(ARG_DOUBLE);
+            putVarLong(Double.doubleToRawLongBits((Double) arg));
+        } else if(arg instanceof Float){
+            put(ARG_FLOAT);
+            putVarInt(Float.floatToRawIntBits((Float) arg));
+        } else if(arg instanceof Boolean){
+            put(ARG_BOOLEAN);
+            put((byte) ((Boolean) arg ? 1 : 0));
+        } else if(arg instanceof Character){
+            put(ARG_CHAR);
+            putVarInt((Character) arg);
+        } else {
+            //any other object is kept as its string representation
+            put(ARG_TEXT);
+            text.setLength(0);
+            MessageTemplate.appendArg(arg, text);
+            putString(text);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int length = pos - BLOCK_HEADER;
+        crc.reset();
+        crc.update(block, BLOCK_HEADER, length);
+        ByteBuffer buffer = ByteBuffer.wrap(block, 0, pos);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        //next block starts from scratch: own dictionary and timestamp base
+        pos = BLOCK_HEADER;
+        dictionary.clear();
+        lastTimestamp = 0;
+        blockStarted = 0;
+    }
+
+    private void put(byte b){
+        ensureCapacity(1);
+        block[pos++] = b;
+    }
+
+    private void putString(CharSequence s){
+        int len = s.length();
+        //room for bytes and for varint written after them: block must not grow between encoding and copying
+        ensureCapacity(10 + len * 3);
+        int start = pos;
+        //length goes before bytes, so reserve max size of varint and move bytes if needed
+        int encodedEnd = Utf8.encode(s, 0, len, block, start + 5);
+        int byteLength = encodedEnd - start - 5;
+        putVarInt(byteLength);
+        System.arraycopy(block, start + 5, block, pos, byteLength);
+        pos += byteLength;
+    }
+
+    private void putVarInt(int value){
+        putVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void putVarLong(long value){
+        ensureCapacity(10);
+        while((value & ~0x7FL) != 0){
+            block[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[pos++] = (byte) value;
+    }
+
+    static long zigzag(long value){
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value){
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void ensureCapacity(int size){
+        if(pos + size > block.length){
+            byte[] bigger = new byte[Math.max(pos + size, block.length * 2)];
+            System.arraycopy(block, 0, bigger, 0, pos);
+            block = bigger;
+        }
+    }
+}
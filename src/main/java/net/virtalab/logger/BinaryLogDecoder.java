@@ -0,0 +1,228 @@
+package net.virtalab.logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Renders binary log written by {@link Log#enableBinaryLog(File)} as text lines "letter time class tag message".
+ * <br>
+ * Usage: java -cp logger.jar net.virtalab.logger.BinaryLogDecoder file [timestamp format]
+ * <br>
+ * Damaged blocks are reported by line starting with "#" and skipped.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public final class BinaryLogDecoder {
+    /**
+     * Layout of decoded line, stacktrace goes after it
+     */
+    public static final String LAYOUT = "%letter %time %class %tag %msg";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final LogConfig config;
+
+    //block being decoded
+    private byte[] block;
+    private int pos;
+    private int end;
+
+    /**
+     * Creates decoder
+     *
+     * @param timestampFormat format of timestamps as SimpleDateFormat requires
+     */
+    public BinaryLogDecoder(String timestampFormat){
+        LogConfig c = LogConfig.defaults();
+        c.timestampFormat = timestampFormat;
+        c.timestampFormatter = new TimestampFormatter(timestampFormat);
+        c.layoutPattern = LAYOUT;
+        c.prepare();
+        this.config = c;
+    }
+
+    /**
+     * Creates decoder with default timestamp format {@link Log#defaultTimestampFormat}
+     */
+    public BinaryLogDecoder(){
+        this(Log.defaultTimestampFormat);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length<1){
+            System.err.println("Usage: BinaryLogDecoder file [timestamp format]");
+            System.exit(1);
+        }
+        BinaryLogDecoder decoder = args.length>1 ? new BinaryLogDecoder(args[1]) : new BinaryLogDecoder();
+        Writer out = new OutputStreamWriter(System.out, UTF8);
+        InputStream in = new FileInputStream(args[0]);
+        try {
+            decoder.decode(in, out);
+        } finally {
+            in.close();
+            out.flush();
+        }
+    }
+
+    /**
+     * Decodes binary log
+     *
+     * @param in binary log
+     * @param out where text lines go
+     * @throws IOException if log cannot be read or is not binary log
+     */
+    public void decode(InputStream in, Appendable out) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        byte[] magic = new byte[BinaryLog.MAGIC.length];
+        data.readFully(magic);
+        if(!Arrays.equals(magic, BinaryLog.MAGIC)){
+            throw new IOException("Not a binary log");
+        }
+        int version = data.readByte();
+        if(version!=BinaryLog.VERSION){
+            throw new IOException("Unsupported binary log version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        StringBuilder sb = new StringBuilder(256);
+        while(true){
+            int length;
+            try {
+                length = data.readInt();
+            } catch (EOFException e){
+                return;
+            }
+            int checksum = data.readInt();
+            if(length<0){
+                out.append("# damaged block header, rest of log skipped").append(Log.NEWLINE);
+                return;
+            }
+            byte[] payload = new byte[length];
+            try {
+                data.readFully(payload);
+            } catch (EOFException e){
+                out.append("# truncated block skipped").append(Log.NEWLINE);
+                return;
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            if((int) crc.getValue()!=checksum){
+                out.append("# damaged block of ").append(String.valueOf(length)).append(" bytes skipped").append(Log.NEWLINE);
+                continue;
+            }
+            decodeBlock(payload, out, sb);
+        }
+    }
+
+    private void decodeBlock(byte[] payload, Appendable out, StringBuilder sb) throws IOException {
+        block = payload;
+        pos = 0;
+        end = payload.length;
+        List<String> dictionary = new ArrayList<String>();
+        long timestamp = 0;
+        while(pos<end){
+            byte entry = block[pos++];
+            if(entry==BinaryLog.STRING){
+                dictionary.add(getString());
+                continue;
+            }
+            if(entry!=BinaryLog.RECORD){
+                out.append("# unknown entry, rest of block skipped").append(Log.NEWLINE);
+                return;
+            }
+            int levelByte = block[pos++];
+            Log.LogObject l = new Log.LogObject(LogLevel.values()[levelByte & 0x0F]);
+            l.wtf = (levelByte & 0x10)!=0;
+            timestamp += BinaryLog.unzigzag(getVarLong());
+            l.timestamp = timestamp;
+            l.className = lookup(dictionary, getVarInt());
+            l.tag = lookup(dictionary, getVarInt());
+            String template = lookup(dictionary, getVarInt());
+            int argCount = getVarInt();
+            if(argCount>0){
+                l.template = MessageTemplate.of(template);
+                l.args = new Object[argCount];
+                for(int i=0;i<argCount;i++){
+                    l.args[i] = getArg();
+                }
+            } else {
+                l.message = template;
+            }
+            String trace = block[pos++]!=0 ? getString() : null;
+            l.config = config;
+
+            sb.setLength(0);
+            config.layout.format(l, sb);
+            if(trace!=null){
+                sb.append(Log.NEWLINE).append(trace);
+            }
+            out.append(sb).append(Log.NEWLINE);
+        }
+    }
+
+    private static String lookup(List<String> dictionary, int id){
+        return id==0 ? null : dictionary.get(id - 1);
+    }
+
+    private Object getArg(){
+        byte type = block[pos++];
+        switch (type){
+            case BinaryLog.ARG_NULL:
+                return null;
+            case BinaryLog.ARG_STRING:
+            case BinaryLog.ARG_TEXT:
+                return getString();
+            case BinaryLog.ARG_INT:
+                return (int) BinaryLog.unzigzag(getVarLong());
+            case BinaryLog.ARG_LONG:
+                return BinaryLog.unzigzag(getVarLong());
+            case BinaryLog.ARG_DOUBLE:
+                return Double.longBitsToDouble(getVarLong());
+            case BinaryLog.ARG_FLOAT:
+                return Float.intBitsToFloat(getVarInt());
+            case BinaryLog.ARG_BOOLEAN:
+                return block[pos++]!=0;
+            case BinaryLog.ARG_CHAR:
+                return (char) getVarInt();
+            default:
+                throw new IllegalStateException("Unknown argument type " + type);
+        }
+    }
+
+    private String getString(){
+        int length = getVarInt();
+        String s = new String(block, pos, length, UTF8);
+        pos += length;
+        return s;
+    }
+
+    private int getVarInt(){
+        return (int) getVarLong();
+    }
+
+    private long getVarLong(){
+        long value = 0;
+        int shift = 0;
+        while(true){
+            byte b = block[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80)==0){
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package net.virtalab.logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds short name of class, which called logger.
+ * <br>
+ * On Java 9+ walks stack lazily with {@code StackWalker} and stops at first frame outside logger,
+ * on older JVMs falls back to stack trace of new {@link Throwable}.
+ * Short names are cached, so no string splitting happens once class has been seen.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+abstract class CallerResolver {
+    /**
+     * Package of logger, see {@link #isLoggerClass(String)}
+     */
+    private static final String LOGGER_PACKAGE = CallerResolver.class.getPackage().getName() + ".";
+
+    private static final CallerResolver INSTANCE = create();
+
+    /**
+     * Call site found for record, which is being created at this thread, see {@link #resolveCallSite()}
+     */
+    private static final ThreadLocal<CallSite> RESOLVED = new ThreadLocal<CallSite>() {
+        @Override
+        protected CallSite initialValue() {
+            return new CallSite();
+        }
+    };
+
+    private final ConcurrentMap<String, String> shortNames = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Provides resolver suitable for running JVM
+     *
+     * @return resolver
+     */
+    static CallerResolver get(){
+        return INSTANCE;
+    }
+
+    /**
+     * Finds short name of class that called Log method.
+     * Takes it from call site, when it has been resolved for same record by {@link #resolveCallSite()}.
+     *
+     * @return string contains name of class or NULL if there is no such class at stack
+     */
+    final String callerClassName(){
+        CallSite site = RESOLVED.get();
+        if(site.pending){
+            site.pending = false;
+            return site.shortClassName;
+        }
+        return findCallerClassName();
+    }
+
+    /**
+     * Finds place in code, which called Log method. It is kept for record, which is created next at this thread,
+     * so its caller is not searched again, see {@link #forgetCallSite()}.
+     *
+     * @return call site of this thread, it is changed by next call; NULL if there is no such place at stack
+     */
+    final CallSite resolveCallSite(){
+        CallSite site = RESOLVED.get();
+        site.pending = false;
+        if(!findCallSite(site)){
+            return null;
+        }
+        site.pending = true;
+        return site;
+    }
+
+    /**
+     * Drops call site, when no record is created after {@link #resolveCallSite()}
+     */
+    static void forgetCallSite(){
+        RESOLVED.get().pending = false;
+    }
+
+    abstract String findCallerClassName();
+
+    /**
+     * Fills given call site with first frame outside logger
+     *
+     * @param site call site to fill
+     * @return false if there is no such frame
+     */
+    abstract boolean findCallSite(CallSite site);
+
+    /**
+     * Checks if class belongs to logger itself. Rule: class (or nested class) right in package net.virtalab.logger
+     * is logger, class of any sub-package is caller. So "net.virtalab.logger.Log" and "net.virtalab.logger.Log$LogObject"
+     * are skipped, but "net.virtalab.logger.test.Foo" or "net.virtalab.logger.bench.Bar" are callers.
+     *
+     * @param className fully qualified class name
+     * @return true if frames of this class should be skipped
+     */
+    static boolean isLoggerClass(String className){
+        if(!className.startsWith(LOGGER_PACKAGE)){
+            return false;
+        }
+        //dot after package prefix means sub-package
+        boolean inSubPackage = className.indexOf('.', LOGGER_PACKAGE.length()) >= 0;
+        return !inSubPackage;
+    }
+
+    /**
+     * Provides class name without package
+     *
+     * @param className fully qualified class name
+     * @return cached short class name
+     */
+    String shortName(String className){
+        String shortName = shortNames.get(className);
+        if(shortName==null){
+            shortName = className.substring(className.lastIndexOf('.') + 1);
+            shortNames.putIfAbsent(className, shortName);
+        }
+        return shortName;
+    }
+
+    private static CallerResolver create(){
+        if(StackWalkerCallerResolver.isAvailable()){
+            return new StackWalkerCallerResolver();
+        }
+        //Java 8
+        return new ThrowableCallerResolver();
+    }
+
+    /**
+     * Resolver for JVMs without StackWalker. Has to take whole stack trace, but avoids regex and repeated compares.
+     */
+    private static final class ThrowableCallerResolver extends CallerResolver {
+        @Override
+        String findCallerClassName(){
+            StackTraceElement ste = firstCaller();
+            return ste==null ? null : shortName(ste.getClassName());
+        }
+
+        @Override
+        boolean findCallSite(CallSite site){
+            StackTraceElement ste = firstCaller();
+            if(ste==null){ return false; }
+            site.set(ste.getClassName(), ste.getMethodName(), ste.getLineNumber(), shortName(ste.getClassName()));
+            return true;
+        }
+
+        private static StackTraceElement firstCaller(){
+            StackTraceElement[] stElements = new Throwable().getStackTrace();
+            for(StackTraceElement ste : stElements){
+                if(!isLoggerClass(ste.getClassName())){
+                    return ste;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Place in code, which called Log method. Same place gives equal objects, so it serves as key of call site limiter.
+     * Instance of thread is reused, so it has to be copied to be kept.
+     */
+    static final class CallSite {
+        private String className;
+        private String methodName;
+        private int line;
+        private String shortClassName;
+        private boolean pending;
+
+        void set(String className, String methodName, int line, String shortClassName){
+            this.className = className;
+            this.methodName = methodName;
+            this.line = line;
+            this.shortClassName = shortClassName;
+        }
+
+        String shortClassName(){
+            return shortClassName;
+        }
+
+        CallSite copy(){
+            CallSite copy = new CallSite();
+            copy.set(className, methodName, line, shortClassName);
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this==o){ return true; }
+            if(!(o instanceof CallSite)){ return false; }
+            CallSite other = (CallSite) o;
+            return line==other.line && className.equals(other.className) && methodName.equals(other.methodName);
+        }
+
+        @Override
+        public int hashCode(){
+            return 31 * (31 * className.hashCode() + methodName.hashCode()) + line;
+        }
+
+        /**
+         * @return string like "com.example.Foo.bar:42"
+         */
+        @Override
+        public String toString(){
+            return className + "." + methodName + ":" + line;
+        }
+    }
+}
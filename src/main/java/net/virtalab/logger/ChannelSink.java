@@ -0,0 +1,171 @@
+package net.virtalab.logger;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sink, which writes records straight to channel: file or raw stdout/stderr descriptor.
+ * <br>
+ * Records are copied into direct buffer and leave it with as few system calls as possible:
+ * with auto flush it is one write per record (instead of several inside {@link java.io.PrintStream#println(String)}),
+ * without it buffer is written only when full, on {@link #flush()}, {@link Log#flush()} or by {@link Log#enableGroupCommit(FlushPolicy)}.
+ * Record, which doesn't fit into buffer, is written together with buffered ones by single gathering write.
+ * <br>
+ * Note: buffer methods are called through {@link Buffer}, because ByteBuffer overrides of Java 9+ don't exist on Java 8
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public class ChannelSink implements Sink {
+    public static final int defaultBufferSize = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final boolean autoFlush;
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer[] gather = new ByteBuffer[2];
+
+    /**
+     * Creates sink, which appends records to file and writes every record immediately
+     *
+     * @param file log file, created if not exists
+     * @throws IOException if file cannot be opened
+     */
+    public ChannelSink(File file) throws IOException {
+        this(file, true);
+    }
+
+    /**
+     * Creates sink, which appends records to file
+     *
+     * @param file log file, created if not exists
+     * @param autoFlush true to write every record immediately, false to write them when buffer is full or flushed
+     * @throws IOException if file cannot be opened
+     */
+    public ChannelSink(File file, boolean autoFlush) throws IOException {
+        this(new FileOutputStream(file, true).getChannel(), autoFlush, true, defaultBufferSize);
+    }
+
+    /**
+     * Creates sink on top of any channel. Channel is closed together with sink.
+     *
+     * @param channel channel to write to
+     * @param autoFlush true to write every record immediately, false to write them when buffer is full or flushed
+     */
+    public ChannelSink(WritableByteChannel channel, boolean autoFlush){
+        this(channel, autoFlush, true, defaultBufferSize);
+    }
+
+    ChannelSink(WritableByteChannel channel, boolean autoFlush, boolean closeChannel, int bufferSize){
+        this.channel = channel;
+        this.autoFlush = autoFlush;
+        this.closeChannel = closeChannel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Creates sink, which writes to raw stdout descriptor, bypassing {@link System#out}
+     *
+     * @param autoFlush true to write every record immediately, false to write them when buffer is full or flushed
+     * @return sink for stdout
+     */
+    public static ChannelSink stdout(boolean autoFlush){
+        return new ChannelSink(new FileOutputStream(FileDescriptor.out).getChannel(), autoFlush, false, defaultBufferSize);
+    }
+
+    /**
+     * Creates sink, which writes to raw stderr descriptor, bypassing {@link System#err}
+     *
+     * @param autoFlush true to write every record immediately, false to write them when buffer is full or flushed
+     * @return sink for stderr
+     */
+    public static ChannelSink stderr(boolean autoFlush){
+        return new ChannelSink(new FileOutputStream(FileDescriptor.err).getChannel(), autoFlush, false, defaultBufferSize);
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, ByteBuffer record) throws IOException {
+        if(record.remaining() > buffer.remaining()){
+            writeThrough(record);
+        } else {
+            buffer.put(record);
+        }
+        if(autoFlush){
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        try {
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        } finally {
+            ((Buffer) buffer).clear();
+        }
+    }
+
+    /**
+     * Flushes sink. If channel is file, forces its content to storage device.
+     *
+     * @throws IOException on write error
+     */
+    @Override
+    public synchronized void sync() throws IOException {
+        flush();
+        if(channel instanceof FileChannel){
+            ((FileChannel) channel).force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if(closeChannel){
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes buffered bytes and record, which doesn't fit into buffer
+     *
+     * @param record encoded record
+     * @throws IOException on write error
+     */
+    private void writeThrough(ByteBuffer record) throws IOException {
+        ((Buffer) buffer).flip();
+        try {
+            if(channel instanceof GatheringByteChannel){
+                GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                gather[0] = buffer;
+                gather[1] = record;
+                while(record.hasRemaining()){
+                    gathering.write(gather);
+                }
+            } else {
+                while(buffer.hasRemaining()){
+                    channel.write(buffer);
+                }
+                while(record.hasRemaining()){
+                    channel.write(record);
+                }
+            }
+        } finally {
+            gather[1] = null;
+            ((Buffer) buffer).clear();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.virtalab.logger;
+
+/**
+ * Source of log timestamps.
+ * By default it asks system time for every record. Coarse mode reads value,
+ * which is updated by background thread, that is cheaper during heavy bursts of records.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class Clock {
+    /**
+     * Ticker of coarse mode. NULL means precise mode.
+     */
+    private static volatile Ticker ticker;
+
+    private Clock(){
+    }
+
+    /**
+     * Provides current time
+     *
+     * @return current time in millis, in coarse mode it may be behind system time by resolution
+     */
+    static long now(){
+        Ticker t = ticker;
+        if(t==null){
+            return System.currentTimeMillis();
+        }
+        return t.now;
+    }
+
+    /**
+     * Switches clock to coarse mode
+     *
+     * @param resolutionMillis how often cached value is updated
+     */
+    static synchronized void coarse(long resolutionMillis){
+        precise();
+        ticker = new Ticker(resolutionMillis);
+    }
+
+    /**
+     * Switches clock back to precise mode
+     */
+    static synchronized void precise(){
+        Ticker t = ticker;
+        if(t==null){ return; }
+        ticker = null;
+        t.running = false;
+    }
+
+    /**
+     * Background thread which caches system time
+     */
+    private static final class Ticker implements Runnable {
+        private final long resolutionMillis;
+
+        private volatile long now = System.currentTimeMillis();
+        private volatile boolean running = true;
+
+        private Ticker(long resolutionMillis){
+            this.resolutionMillis = resolutionMillis;
+            Thread thread = new Thread(this, "virtalab-logger-clock");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run(){
+            while(running){
+                now = System.currentTimeMillis();
+                try {
+                    Thread.sleep(resolutionMillis);
+                } catch (InterruptedException e){
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps last records, which are below current log level, in unformatted form.
+ * They are printed only when error happens or on demand, see {@link Log#enableFlightRecorder(int)}.
+ * <br>
+ * Slots are allocated once. Recording copies fields of log object to slot, so pooled objects are never kept.
+ * Every slot has its own lock, so threads only meet when they write same slot.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class FlightRecorder {
+    private static final Log.LogObject EMPTY = new Log.LogObject(null);
+
+    private final Log.LogObject[] slots;
+    /**
+     * Sequence number of record in every slot, -1 for empty slot. Guarded by lock of slot.
+     */
+    private final long[] sequences;
+    private final AtomicLong next = new AtomicLong();
+    /**
+     * Records with lower sequence were printed already
+     */
+    private long drained;
+
+    /**
+     * Creates recorder
+     *
+     * @param capacity number of records kept
+     */
+    FlightRecorder(int capacity){
+        this.slots = new Log.LogObject[capacity];
+        this.sequences = new long[capacity];
+        for(int i=0;i<capacity;i++){
+            slots[i] = new Log.LogObject(null);
+            sequences[i] = -1;
+        }
+    }
+
+    /**
+     * Copies log object to ring. Oldest record is overwritten when ring is full.
+     *
+     * @param l log object, which is not printed
+     */
+    void record(Log.LogObject l){
+        //arguments may change before record is printed
+        l.args = MessageTemplate.freeze(l.args);
+        long seq = next.getAndIncrement();
+        int idx = (int) (seq % slots.length);
+        Log.LogObject slot = slots[idx];
+        synchronized (slot){
+            //slower thread must not overwrite newer record
+            if(sequences[idx] > seq){ return; }
+            sequences[idx] = seq;
+            slot.copyFrom(l);
+        }
+    }
+
+    /**
+     * Takes records recorded since previous call, oldest first
+     *
+     * @return copies of records, which belong to nobody
+     */
+    synchronized List<Log.LogObject> drain(){
+        long end = next.get();
+        long start = Math.max(drained, end - slots.length);
+        drained = end;
+        List<Log.LogObject> records = new ArrayList<Log.LogObject>((int) (end - start));
+        for(long seq=start;seq<end;seq++){
+            int idx = (int) (seq % slots.length);
+            Log.LogObject slot = slots[idx];
+            synchronized (slot){
+                if(sequences[idx]!=seq){ continue; }
+                Log.LogObject l = new Log.LogObject(slot.level);
+                l.copyFrom(slot);
+                records.add(l);
+                //printed record should not hold its arguments and exception any longer
+                slot.copyFrom(EMPTY);
+                sequences[idx] = -1;
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,77 @@
+package net.virtalab.logger;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Says when records are flushed out of sink buffers. Used by {@link Log#enableGroupCommit(FlushPolicy)}.
+ * <br>
+ * Ordinary records are flushed in batches: after given number of records or given time, whichever comes first.
+ * Records of durable levels (ERROR by default) and "What a Terrible Failure" records are flushed at once,
+ * together with everything written before them.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public final class FlushPolicy {
+    private final int maxRecords;
+    private final long maxDelayMillis;
+    private final boolean fsync;
+    private final Set<LogLevel> durableLevels;
+
+    /**
+     * Creates policy, where ERROR records are durable
+     *
+     * @param maxRecords flush after this number of records, 0 means no limit
+     * @param maxDelayMillis flush not later than this time after record (in millis), 0 means no limit
+     * @param fsync true to force records to storage device, false to just write them out of buffers
+     */
+    public FlushPolicy(int maxRecords, long maxDelayMillis, boolean fsync){
+        this(maxRecords, maxDelayMillis, fsync, EnumSet.of(LogLevel.ERROR));
+    }
+
+    private FlushPolicy(int maxRecords, long maxDelayMillis, boolean fsync, Set<LogLevel> durableLevels){
+        this.maxRecords = Math.max(0, maxRecords);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        this.fsync = fsync;
+        this.durableLevels = durableLevels;
+    }
+
+    /**
+     * Makes same policy with other durable levels
+     *
+     * @param levels levels, which records are flushed (and fsynced) at once
+     * @return new policy
+     */
+    public FlushPolicy durableFor(LogLevel... levels){
+        Set<LogLevel> durable = EnumSet.noneOf(LogLevel.class);
+        if(levels!=null){
+            durable.addAll(Arrays.asList(levels));
+        }
+        return new FlushPolicy(maxRecords, maxDelayMillis, fsync, durable);
+    }
+
+    public int getMaxRecords(){
+        return maxRecords;
+    }
+
+    public long getMaxDelayMillis(){
+        return maxDelayMillis;
+    }
+
+    public boolean isFsync(){
+        return fsync;
+    }
+
+    /**
+     * Checks if record must be flushed at once
+     *
+     * @param level log level of record
+     * @param wtf true for "What a Terrible Failure" record
+     * @return true for durable record
+     */
+    public boolean isDurable(LogLevel level, boolean wtf){
+        return wtf || durableLevels.contains(level);
+    }
+}
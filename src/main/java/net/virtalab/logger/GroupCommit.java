@@ -0,0 +1,152 @@
+package net.virtalab.logger;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flushes sinks and binary log by {@link FlushPolicy}.
+ * <br>
+ * Counts records written since last flush. Batch is flushed by the thread, which wrote last record of it,
+ * or by background thread, when oldest record of batch waits longer than policy allows.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class GroupCommit implements Runnable {
+    static final String THREAD_NAME = "virtalab-logger-flusher";
+
+    private final FlushPolicy policy;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * When first record of pending batch was written (millis), 0 if nothing is pending
+     */
+    private volatile long firstPending;
+    private volatile boolean running = true;
+    private final Thread thread;
+
+    /**
+     * Sinks of latest configuration, used by background thread
+     */
+    private volatile Sink[] sinks = new Sink[0];
+    /**
+     * Binary log of latest configuration, NULL if it is off
+     */
+    private volatile BinaryLog binaryLog;
+
+    GroupCommit(FlushPolicy policy){
+        this.policy = policy;
+        if(policy.getMaxDelayMillis()>0){
+            thread = new Thread(this, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            thread = null;
+        }
+    }
+
+    FlushPolicy getPolicy(){
+        return policy;
+    }
+
+    /**
+     * Called after record was given to sinks
+     *
+     * @param c configuration, record was written with
+     * @param level log level of record
+     * @param wtf true for "What a Terrible Failure" record
+     */
+    void recorded(LogConfig c, LogLevel level, boolean wtf){
+        sinks = c.sinks;
+        binaryLog = c.binaryLog;
+        if(policy.isDurable(level, wtf)){
+            //everything written before durable record becomes durable as well
+            commit(c.sinks, true);
+            return;
+        }
+        int count = pending.incrementAndGet();
+        if(count==1){
+            firstPending = System.currentTimeMillis();
+            //background thread waits for this batch from now on
+            if(thread!=null){
+                LockSupport.unpark(thread);
+            }
+        }
+        boolean full = policy.getMaxRecords()>0 && count >= policy.getMaxRecords();
+        if(full || isLate()){
+            commit(c.sinks, policy.isFsync());
+        }
+    }
+
+    /**
+     * Stops background thread. Pending records are flushed.
+     */
+    void stop(){
+        running = false;
+        if(thread!=null){
+            LockSupport.unpark(thread);
+        }
+        if(pending.get()>0){
+            commit(sinks, policy.isFsync());
+        }
+    }
+
+    @Override
+    public void run(){
+        long maxDelay = policy.getMaxDelayMillis();
+        while(running){
+            long first = firstPending;
+            if(first!=0 && pending.get()>0 && isLate()){
+                commit(sinks, policy.isFsync());
+                continue;
+            }
+            //nothing pending: sleep till first record of next batch wakes us up
+            long wait = first==0 ? maxDelay : first + maxDelay - System.currentTimeMillis();
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.max(1, wait)));
+            if(Thread.interrupted()){
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tells if oldest pending record waits longer than policy allows
+     *
+     * @return true if batch should be flushed now
+     */
+    private boolean isLate(){
+        long first = firstPending;
+        return policy.getMaxDelayMillis()>0 && first!=0 && System.currentTimeMillis() - first >= policy.getMaxDelayMillis();
+    }
+
+    private void commit(Sink[] sinks, boolean fsync){
+        //in this order record written meanwhile gets own firstPending or goes with this batch
+        firstPending = 0;
+        pending.set(0);
+        for(Sink sink : sinks){
+            try {
+                if(fsync){
+                    sink.sync();
+                } else {
+                    sink.flush();
+                }
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
+            }
+        }
+        BinaryLog binaryLog = this.binaryLog;
+        if(binaryLog!=null){
+            try {
+                if(fsync){
+                    binaryLog.sync();
+                } else {
+                    binaryLog.flush();
+                }
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.virtalab.logger;
+
+/**
+ * Layout, which prints record as single-line JSON object, ready for log indexers:
+ * {"timestamp":1400000000000,"level":"ERROR","thread":"main","class":"Foo","tag":"db","message":"...","exception":"...",
+ * "context":{"requestId":"42"}}
+ * <br>
+ * Fields are written straight into record buffer, no maps or reflection involved.
+ * Strings are escaped in place, escaping allocates only when string really has chars to escape.
+ * Fields disabled by configuration (time, class, tag) and empty ones are omitted.
+ * Context is diagnostic context of thread, see {@link Log#putContext(String, String)}.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class JsonLayout extends Layout {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final boolean withTime;
+    private final boolean withClassName;
+    private final boolean withTag;
+
+    /**
+     * Level field prefix by level ordinal, rendered once
+     */
+    private final String[] levels;
+
+    JsonLayout(LogConfig c){
+        this.withTime = c.isTimeEnabled;
+        this.withClassName = c.isClassNameEnabled;
+        this.withTag = c.isTagEnabled;
+        LogLevel[] all = LogLevel.values();
+        this.levels = new String[all.length];
+        for(LogLevel level : all){
+            levels[level.ordinal()] = "\"level\":\"" + level.name() + "\"";
+        }
+    }
+
+    @Override
+    void format(Log.LogObject l, StringBuilder sb){
+        sb.append('{');
+        if(withTime){
+            sb.append("\"timestamp\":").append(l.timestamp).append(',');
+        }
+        sb.append(levels[l.level.ordinal()]);
+        if(l.wtf){
+            sb.append(",\"wtf\":true");
+        }
+        if(l.threadName!=null){
+            sb.append(",\"thread\":");
+            appendString(l.threadName, sb);
+        }
+        if(withClassName && l.className!=null){
+            sb.append(",\"class\":");
+            appendString(l.className, sb);
+        }
+        if(withTag && l.tag!=null && !l.tag.isEmpty()){
+            sb.append(",\"tag\":");
+            appendString(l.tag, sb);
+        }
+        sb.append(",\"message\":\"");
+        int start = sb.length();
+        if(l.template!=null){
+            l.template.formatTo(l.args, sb);
+        } else if(l.message!=null){
+            sb.append(l.message);
+        }
+        escapeFrom(start, sb);
+        sb.append('"');
+        if(l.th!=null){
+            sb.append(",\"exception\":\"");
+            start = sb.length();
+            appendStackTrace(l.th, l.config, sb);
+            escapeFrom(start, sb);
+            sb.append('"');
+        }
+        LogContext context = l.context;
+        if(context!=null && !context.isEmpty()){
+            sb.append(",\"context\":{");
+            for(int i=0;i<context.size();i++){
+                if(i>0){
+                    sb.append(',');
+                }
+                appendString(context.keyAt(i), sb);
+                sb.append(':');
+                appendString(context.valueAt(i), sb);
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+    }
+
+    @Override
+    boolean needsClassName(){
+        return withClassName;
+    }
+
+    @Override
+    boolean needsThreadName(){
+        return true;
+    }
+
+    @Override
+    boolean needsContext(){
+        return true;
+    }
+
+    private static void appendString(String s, StringBuilder sb){
+        sb.append('"');
+        int start = sb.length();
+        sb.append(s);
+        escapeFrom(start, sb);
+        sb.append('"');
+    }
+
+    /**
+     * Escapes text already appended to builder, starting from given index.
+     * Escaping is done in place: builder grows by size of escapes and text is moved from its end, so nothing is copied aside.
+     *
+     * @param start index of first char of text
+     * @param sb builder with text at its end
+     */
+    static void escapeFrom(int start, StringBuilder sb){
+        int len = sb.length();
+        int i = start;
+        while(i<len && !needsEscape(sb.charAt(i))){
+            i++;
+        }
+        if(i==len){ return; }
+        //rare case: text has chars to escape
+        int extra = 0;
+        for(int j=i;j<len;j++){
+            char ch = sb.charAt(j);
+            if(needsEscape(ch)){
+                extra += shortEscape(ch)!=0 ? 1 : 5;
+            }
+        }
+        sb.setLength(len + extra);
+        //moving from end, so every char is read before its place is overwritten
+        int w = len + extra;
+        for(int j=len-1;j>=i;j--){
+            char ch = sb.charAt(j);
+            if(!needsEscape(ch)){
+                sb.setCharAt(--w, ch);
+                continue;
+            }
+            char escape = shortEscape(ch);
+            if(escape!=0){
+                sb.setCharAt(--w, escape);
+            } else {
+                sb.setCharAt(--w, HEX[ch & 0xF]);
+                sb.setCharAt(--w, HEX[(ch >> 4) & 0xF]);
+                sb.setCharAt(--w, HEX[(ch >> 8) & 0xF]);
+                sb.setCharAt(--w, HEX[(ch >> 12) & 0xF]);
+                sb.setCharAt(--w, 'u');
+            }
+            sb.setCharAt(--w, '\\');
+        }
+    }
+
+    /**
+     * @param ch char, which needs escape
+     * @return letter of two-char escape like \n, 0 if char needs \\uXXXX
+     */
+    private static char shortEscape(char ch){
+        switch (ch){
+            case '"': return '"';
+            case '\\': return '\\';
+            case '\n': return 'n';
+            case '\r': return 'r';
+            case '\t': return 't';
+            case '\b': return 'b';
+            case '\f': return 'f';
+            default: return 0;
+        }
+    }
+
+    private static boolean needsEscape(char ch){
+        return ch<0x20 || ch=='"' || ch=='\\' || ch==0x2028 || ch==0x2029;
+    }
+}
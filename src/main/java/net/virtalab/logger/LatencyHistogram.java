@@ -0,0 +1,55 @@
+package net.virtalab.logger;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanos with power-of-two buckets.
+ * Buckets are striped counters, so many threads record without contention.
+ * Percentiles are reported as upper bound of bucket, so they are accurate within factor of 2.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    /**
+     * Bucket i counts durations in range [2^(i-1), 2^i), bucket 0 counts zero durations
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram(){
+        for(int i=0;i<BUCKETS;i++){
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records duration
+     *
+     * @param nanos duration in nanos, negative is treated as zero
+     */
+    void record(long nanos){
+        long value = Math.max(0, nanos);
+        //64 leading zeros for 0 give bucket 0, value 1 goes to bucket 1 and so on
+        buckets[Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(value))].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Makes snapshot
+     *
+     * @return current state
+     */
+    LatencyStats snapshot(){
+        long[] counts = new long[BUCKETS];
+        for(int i=0;i<BUCKETS;i++){
+            counts[i] = buckets[i].sum();
+        }
+        return new LatencyStats(counts, sum.sum(), max.get());
+    }
+}
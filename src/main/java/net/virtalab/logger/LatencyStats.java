@@ -0,0 +1,77 @@
+package net.virtalab.logger;
+
+/**
+ * Snapshot of durations histogram. Part of {@link LogStats}.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public final class LatencyStats {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    LatencyStats(long[] counts, long sum, long max){
+        this.counts = counts;
+        long total = 0;
+        for(long c : counts){
+            total += c;
+        }
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Provides number of recorded durations
+     *
+     * @return number of durations
+     */
+    public long getCount(){
+        return count;
+    }
+
+    /**
+     * Provides average duration
+     *
+     * @return average in nanos, 0 if nothing was recorded
+     */
+    public long getMeanNanos(){
+        return count==0 ? 0 : sum / count;
+    }
+
+    /**
+     * Provides longest duration
+     *
+     * @return max in nanos
+     */
+    public long getMaxNanos(){
+        return max;
+    }
+
+    /**
+     * Provides percentile. Value is upper bound of power-of-two bucket, so it may be up to twice the real one.
+     *
+     * @param percentile percentile from 0 to 100, like 50 or 99.9
+     * @return duration in nanos, 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile){
+        if(count==0){ return 0; }
+        long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for(int i=0;i<counts.length;i++){
+            seen += counts[i];
+            if(seen>=Math.max(1, rank)){
+                return Math.min(max, i==0 ? 0 : (1L << i) - 1);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString(){
+        return "count=" + count + ", mean=" + getMeanNanos() + "ns, p50=" + getPercentileNanos(50)
+                + "ns, p99=" + getPercentileNanos(99) + "ns, max=" + max + "ns";
+    }
+}
@@ -0,0 +1,59 @@
+package net.virtalab.logger;
+
+/**
+ * Turns log record into text line. Layout is built once per configuration snapshot,
+ * so formatting of single record does not depend on configuration flags anymore.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+abstract class Layout {
+
+    /**
+     * Appends formatted record to given builder
+     *
+     * @param l log object
+     * @param sb builder to append to
+     */
+    abstract void format(Log.LogObject l, StringBuilder sb);
+
+    /**
+     * Tells if layout prints name of caller class, so it should be resolved when record is created
+     *
+     * @return true if layout needs caller class name
+     */
+    abstract boolean needsClassName();
+
+    /**
+     * Tells if layout prints name of caller thread, so it should be taken when record is created
+     *
+     * @return true if layout needs thread name
+     */
+    boolean needsThreadName(){
+        return false;
+    }
+
+    /**
+     * Tells if layout prints diagnostic context of caller thread, so it should be taken when record is created
+     *
+     * @return true if layout needs context
+     */
+    boolean needsContext(){
+        return false;
+    }
+
+    /**
+     * Appends Throwable's stacktrace
+     *
+     * @param t throwable with its stacktrace
+     * @param c configuration snapshot, says if repeated traces are shortened
+     * @param sb builder to append to
+     */
+    static void appendStackTrace(Throwable t, LogConfig c, StringBuilder sb){
+        if(c.stackTraceRenderer!=null){
+            c.stackTraceRenderer.append(t, sb);
+        } else {
+            StackTraceRenderer.render(t, sb);
+        }
+    }
+}
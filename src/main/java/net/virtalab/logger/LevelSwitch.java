@@ -0,0 +1,106 @@
+package net.virtalab.logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * First check of every log call: tells if level may print anything at all.
+ * <br>
+ * Every level has call site, which returns constant. JIT treats target of call site as constant too,
+ * so call of disabled level compiles to nothing. When configuration changes, call sites get new constants
+ * and JIT throws away code compiled with old ones, so change is seen by all threads at once.
+ * <br>
+ * Switch only says "maybe": level is on if it is enabled globally, for some tag or flight recorder is on.
+ * Full check by {@link LogConfig} follows.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LevelSwitch {
+    private static final MethodHandle ON = MethodHandles.constant(boolean.class, true);
+    private static final MethodHandle OFF = MethodHandles.constant(boolean.class, false);
+
+    private static final MutableCallSite TRACE_SITE = new MutableCallSite(ON);
+    private static final MutableCallSite DEBUG_SITE = new MutableCallSite(ON);
+    private static final MutableCallSite INFO_SITE = new MutableCallSite(ON);
+    private static final MutableCallSite WARN_SITE = new MutableCallSite(ON);
+    private static final MutableCallSite ERROR_SITE = new MutableCallSite(ON);
+
+    //static final handles are constants for JIT, array elements are not
+    private static final MethodHandle TRACE = TRACE_SITE.dynamicInvoker();
+    private static final MethodHandle DEBUG = DEBUG_SITE.dynamicInvoker();
+    private static final MethodHandle INFO = INFO_SITE.dynamicInvoker();
+    private static final MethodHandle WARN = WARN_SITE.dynamicInvoker();
+    private static final MethodHandle ERROR = ERROR_SITE.dynamicInvoker();
+
+    private static final MutableCallSite[] SITES = {TRACE_SITE, DEBUG_SITE, INFO_SITE, WARN_SITE, ERROR_SITE};
+    private static final LogLevel[] LEVELS = {LogLevel.TRACE, LogLevel.DEBUG, LogLevel.INFO, LogLevel.WARN, LogLevel.ERROR};
+
+    private LevelSwitch(){
+    }
+
+    static boolean trace(){
+        try {
+            return (boolean) TRACE.invokeExact();
+        } catch (Throwable t){
+            return true;
+        }
+    }
+
+    static boolean debug(){
+        try {
+            return (boolean) DEBUG.invokeExact();
+        } catch (Throwable t){
+            return true;
+        }
+    }
+
+    static boolean info(){
+        try {
+            return (boolean) INFO.invokeExact();
+        } catch (Throwable t){
+            return true;
+        }
+    }
+
+    static boolean warn(){
+        try {
+            return (boolean) WARN.invokeExact();
+        } catch (Throwable t){
+            return true;
+        }
+    }
+
+    static boolean error(){
+        try {
+            return (boolean) ERROR.invokeExact();
+        } catch (Throwable t){
+            return true;
+        }
+    }
+
+    /**
+     * Sets switches for published configuration. Must be called after configuration is published,
+     * so that switch is never off while configuration says on.
+     *
+     * @param c published configuration snapshot
+     */
+    static synchronized void update(LogConfig c){
+        int max = c.level.priority;
+        for(LogLevel level : c.tagLevelMatrix.values()){
+            max = Math.max(max, level.priority);
+        }
+        boolean changed = false;
+        for(int i=0;i<SITES.length;i++){
+            MethodHandle target = c.recorder!=null || max >= LEVELS[i].priority ? ON : OFF;
+            if(SITES[i].getTarget()!=target){
+                SITES[i].setTarget(target);
+                changed = true;
+            }
+        }
+        if(changed){
+            MutableCallSite.syncAll(SITES);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.virtalab.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of {@link LogLimit} for single tag, level or call site. Lock-free: every check is one atomic operation
+ * (or few CAS retries under contention).
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+abstract class Limiter {
+    final String name;
+    final LogLimit limit;
+
+    private final AtomicLong suppressed = new AtomicLong();
+
+    Limiter(String name, LogLimit limit){
+        this.name = name;
+        this.limit = limit;
+    }
+
+    /**
+     * Short name of class, which is limited, NULL if limiter is not for single call site
+     */
+    String className;
+
+    /**
+     * Checks if one more record is allowed and takes its token
+     *
+     * @return true if record may be printed
+     */
+    abstract boolean tryPermit();
+
+    /**
+     * Gives back token taken by {@link #tryPermit()}, when record is dropped by other limit
+     */
+    abstract void refund();
+
+    /**
+     * Counts record dropped by this limiter
+     */
+    final void suppress(){
+        suppressed.incrementAndGet();
+    }
+
+    /**
+     * Provides number of records suppressed since previous call
+     *
+     * @return number of suppressed records
+     */
+    long takeSuppressed(){
+        return suppressed.getAndSet(0);
+    }
+
+    /**
+     * Token bucket in form of "virtual scheduling": keeps theoretical time, when bucket is full again.
+     * Each record moves it forward by one interval; record is dropped if that would be further than burst allows.
+     */
+    static final class TokenBucket extends Limiter {
+        private final long interval;
+        private final long capacity;
+        private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+
+        TokenBucket(String name, LogLimit limit, long interval, long capacity){
+            super(name, limit);
+            this.interval = interval;
+            this.capacity = capacity;
+        }
+
+        @Override
+        boolean tryPermit(){
+            long now = System.nanoTime();
+            while(true){
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                if(next - now > capacity){
+                    return false;
+                }
+                if(fullAt.compareAndSet(current, next)){
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        void refund(){
+            fullAt.addAndGet(-interval);
+        }
+    }
+
+    /**
+     * Allows every n-th record
+     */
+    static final class Sampling extends Limiter {
+        private final int n;
+        private final AtomicLong counter = new AtomicLong();
+
+        Sampling(String name, LogLimit limit, int n){
+            super(name, limit);
+            this.n = n;
+        }
+
+        @Override
+        boolean tryPermit(){
+            return counter.getAndIncrement() % n == 0;
+        }
+
+        @Override
+        void refund(){
+            counter.decrementAndGet();
+        }
+    }
+}
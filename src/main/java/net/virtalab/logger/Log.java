@@ -1,13 +1,15 @@
 package net.virtalab.logger;
 
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
-import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Brand New Logger inspired by android.util.Log
@@ -31,53 +33,61 @@ public class Log {
 
     //log level
     public static final LogLevel defaultLogLevel = LogLevel.OFF;
-    /**
-     * Defines log level we use at moment of logging
-     * By default it equals to default log level
-     * Normally you define it ones at application startup,
-     * but also possible to update as many times as you want
-     * see {@link #updateCurrentLogLevel(LogLevel)}
-     */
-    private static LogLevel currentLogLevel = defaultLogLevel;
 
     //time format
     public static final String defaultTimestampFormat = "dd/MM/yy HH:mm:ss.SSS";
-    /**
-     * Defines timestamp format. now() is a moment of logging.
-     * By default it equals to default timestamp format (dd/MM/yy HH:mm:ss.SSS)
-     * Format can by customized by using {@link #setTimestampFormat(String)}
-     */
-    private static String currentTimestampFormat = defaultTimestampFormat;
 
-    //message format settings
-    private static boolean isLetterEnabled = true;
-    private static boolean isTimeEnabled = true;
-    private static boolean isClassNameEnabled = true;
-    private static boolean isTagEnabled = true;
+    //layout
+    public static final String defaultLayout = "%color%letter %time %class %tag %msg%ex%reset";
 
     //constant
     public static final String NEWLINE = System.getProperty("line.separator");
 
-    //matrix 1,2,3
-    private static Map<LogLevel,String> colorMatrix;
-    private static Map<LogLevel, String> letterMatrix;
-    private static Map<LogLevel, PrintStream> streamMatrix;
+    /**
+     * Current configuration: log level we use at moment of logging, timestamp format, format settings and matrices.
+     * Snapshot is immutable, every change publishes new one, see {@link LogConfig}
+     * By default log level equals to default log level and timestamp format to default one (dd/MM/yy HH:mm:ss.SSS)
+     */
+    private static volatile LogConfig config = LogConfig.defaults();
+    /**
+     * Serializes reconfigurations, so that concurrent changes are not lost
+     */
+    private static final Object configLock = new Object();
 
     static {
-        populateMatrix();
+        LevelSwitch.update(config);
     }
 
+    //async mode
+    public static final int defaultAsyncQueueSize = 1024;
+    //repeat suppression
+    public static final long defaultRepeatTimeout = 30000;
+    //flight recorder
+    public static final int defaultFlightRecorderSize = 512;
+    //scopes
+    public static final int defaultScopeSize = 1000;
+    /**
+     * Writer thread, which formats and publishes records in async mode. NULL in sync mode.
+     * See {@link #enableAsync(int)}
+     */
+    private static volatile AsyncWriter asyncWriter;
+
     /**
      * Makes initial configuration of logger
      *
      * @param level log level logger initialized with
      */
     public static void init(LogLevel level){
-        if(level!=null){
-            Log.currentLogLevel = level;
-        } else {
-            Log.currentLogLevel = defaultLogLevel;
-            Log.currentTimestampFormat = defaultTimestampFormat;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            if(level!=null){
+                c.level = level;
+            } else {
+                c.level = defaultLogLevel;
+                c.timestampFormat = defaultTimestampFormat;
+                c.timestampFormatter = new TimestampFormatter(defaultTimestampFormat);
+            }
+            apply(c);
         }
     }
 
@@ -85,28 +95,44 @@ public class Log {
      * Disables log level letter at very beginning
      */
     public static void noLetter(){
-        Log.isLetterEnabled = false;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isLetterEnabled = false;
+            apply(c);
+        }
     }
 
     /**
      * Disables timestamp in log message
      */
     public static void noTime(){
-        Log.isTimeEnabled = false;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isTimeEnabled = false;
+            apply(c);
+        }
     }
 
     /**
      * Disables class name in log message
      */
     public static void noClassName(){
-        Log.isClassNameEnabled = false;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isClassNameEnabled = false;
+            apply(c);
+        }
     }
 
     /**
      * Do not show tag, even if is passed as arg
      */
     public static void noTag(){
-        Log.isTagEnabled = false;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isTagEnabled = false;
+            apply(c);
+        }
     }
     /**
      * Changes log message color for concrete log level
@@ -119,27 +145,725 @@ public class Log {
             return;
         }
         //TODO check color
-        colorMatrix.put(level,color);
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.colorMatrix.put(level,color);
+            apply(c);
+        }
     }
 
     /**
-     * Changes output stream for concrete log level
+     * Changes output stream for concrete log level.
+     * <br>
+     * Records are written to stream as UTF-8 bytes, charset of stream is not used (same as for System.out and System.err).
+     * On console with other encoding non-ASCII text is garbled, so wrap its output stream into
+     * PrintStream with UTF-8 or use own {@link Sink}.
      *
      * @param level log level
      * @param stream valid Print Stream
      */
     public static void changeStreamForLevel(LogLevel level, PrintStream stream){
         if(level==null || stream==null){ return; }
-        streamMatrix.put(level, stream);
+        changeSinkForLevel(level, new PrintStreamSink(stream));
+    }
+
+    /**
+     * Changes output sink for concrete log level. Replaces all sinks level had before.
+     *
+     * @param level log level
+     * @param sink valid sink, for example {@link ChannelSink}
+     * @since 1.7
+     */
+    public static void changeSinkForLevel(LogLevel level, Sink sink){
+        if(level==null || sink==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.sinkMatrix.put(level, new Sink[]{ sink });
+            apply(c);
+        }
+    }
+
+    /**
+     * Adds one more output sink for concrete log level.
+     * Record is formatted and encoded once, all sinks of level get same bytes.
+     *
+     * @param level log level
+     * @param sink valid sink, for example {@link ChannelSink} or {@link RingSink}
+     * @since 1.7
+     */
+    public static void addSinkForLevel(LogLevel level, Sink sink){
+        if(level==null || sink==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            Sink[] current = c.sinkMatrix.get(level);
+            if(current==null){
+                current = new Sink[0];
+            }
+            if(Arrays.asList(current).contains(sink)){ return; }
+            Sink[] sinks = Arrays.copyOf(current, current.length + 1);
+            sinks[current.length] = sink;
+            c.sinkMatrix.put(level, sinks);
+            apply(c);
+        }
+    }
+
+    /**
+     * Removes output sink from concrete log level. Sink is not closed.
+     *
+     * @param level log level
+     * @param sink sink to remove
+     * @since 1.7
+     */
+    public static void removeSinkForLevel(LogLevel level, Sink sink){
+        if(level==null || sink==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            Sink[] current = c.sinkMatrix.get(level);
+            if(current==null || !Arrays.asList(current).contains(sink)){ return; }
+            List<Sink> sinks = new ArrayList<Sink>(Arrays.asList(current));
+            sinks.remove(sink);
+            c.sinkMatrix.put(level, sinks.toArray(new Sink[sinks.size()]));
+            apply(c);
+        }
+    }
+
+    /**
+     * Writes out records, which sinks keep in their buffers
+     *
+     * @since 1.7
+     */
+    public static void flush(){
+        LogConfig c = config;
+        if(c.binaryLog!=null){
+            try {
+                c.binaryLog.flush();
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
+            }
+        }
+        flushSinks();
+    }
+
+    /**
+     * Flushes sinks, but leaves current block of binary log open: every block repeats its dictionary,
+     * so it is written out by size or time, see {@link BinaryLog}. Used by async writer at end of every batch.
+     */
+    static void flushSinks(){
+        for(Sink sink : config.sinks){
+            try {
+                sink.flush();
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
+            }
+        }
+    }
+
+    /**
+     * Flushes sinks in batches instead of leaving it to sinks. Makes sense for sinks without auto flush,
+     * like {@link ChannelSink} created with autoFlush=false.
+     * <br>
+     * Batch is flushed after number of records or time given by policy, records of durable levels
+     * (ERROR and "What a Terrible Failure" by default) are flushed at once.
+     *
+     * @param policy when to flush
+     * @since 1.7
+     */
+    public static void enableGroupCommit(FlushPolicy policy){
+        if(policy==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            GroupCommit old = c.groupCommit;
+            c.groupCommit = new GroupCommit(policy);
+            apply(c);
+            if(old!=null){
+                old.stop();
+            }
+        }
+    }
+
+    /**
+     * Leaves flushing to sinks again. Pending records are flushed.
+     *
+     * @since 1.7
+     */
+    public static void disableGroupCommit(){
+        synchronized (configLock){
+            GroupCommit old = config.groupCommit;
+            if(old==null){ return; }
+            LogConfig c = config.copy();
+            c.groupCommit = null;
+            apply(c);
+            old.stop();
+        }
+    }
+
+    /**
+     * Sets layout of log line. Layout is compiled once, not for every record.
+     * <br>
+     * Supported tokens: %color, %letter, %time, %class, %tag, %msg, %ex (stacktrace), %reset and %% for percent sign.
+     * Space right after %letter, %time, %class or %tag is printed only when this part is printed.
+     * Default layout is {@link #defaultLayout}
+     *
+     * @param layout layout pattern
+     * @since 1.7
+     */
+    public static void setLayout(String layout){
+        if(layout==null || layout.isEmpty()){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.layoutPattern = layout;
+            apply(c);
+        }
+    }
+
+    /**
+     * Switches logger to garbage-free mode: steady state allocates nothing per record.
+     * On top of per-thread formatting buffers, which are always reused, log objects are reused as well
+     * (pooled in async mode together with their copy of arguments).
+     * <br>
+     * Note: arguments of parameterized messages are still boxed by caller. In async mode argument, which may change
+     * before writer thread formats it (anything but String, boxed primitive or enum), is turned into string at once.
+     * Caller class name (%class in layout, on by default) needs stack walk, which allocates for every record,
+     * so use {@link #noClassName()} or layout without %class to allocate nothing.
+     *
+     * @since 1.7
+     */
+    public static void enableGarbageFree(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isGarbageFree = true;
+            apply(c);
+        }
+    }
+
+    /**
+     * Switches logger back to creating new objects for every record
+     *
+     * @since 1.7
+     */
+    public static void disableGarbageFree(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isGarbageFree = false;
+            apply(c);
+        }
+    }
+
+    /**
+     * Prints stacktrace, which was already printed, as short reference "same trace as #id".
+     * Trace is same, when exception types and frames of whole chain are same, messages may differ.
+     * Saves output during storms of same exceptions.
+     *
+     * @since 1.7
+     */
+    public static void enableStackTraceDedup(){
+        synchronized (configLock){
+            if(config.stackTraceRenderer!=null){ return; }
+            LogConfig c = config.copy();
+            c.stackTraceRenderer = new StackTraceRenderer();
+            apply(c);
+        }
+    }
+
+    /**
+     * Prints every stacktrace in full again. Remembered traces are forgotten.
+     *
+     * @since 1.7
+     */
+    public static void disableStackTraceDedup(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.stackTraceRenderer = null;
+            apply(c);
+        }
+    }
+
+    /**
+     * Collapses identical consecutive records into first one and "Last message repeated N times" line
+     * with default timeout {@link #defaultRepeatTimeout}
+     *
+     * @see #enableRepeatSuppression(long)
+     * @since 1.7
+     */
+    public static void enableRepeatSuppression(){
+        enableRepeatSuppression(defaultRepeatTimeout);
+    }
+
+    /**
+     * Collapses identical consecutive records (same level, tag, message and exception) into first one
+     * and "Last message repeated N times" line. Repeat line is printed when different record comes
+     * or when timeout passes.
+     *
+     * @param timeoutMillis how long repeats may be held back (in millis)
+     * @since 1.7
+     */
+    public static void enableRepeatSuppression(long timeoutMillis){
+        if(timeoutMillis<=0){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            RepeatFilter old = c.repeatFilter;
+            c.repeatFilter = new RepeatFilter(timeoutMillis);
+            apply(c);
+            if(old!=null){
+                old.stop();
+            }
+        }
+    }
+
+    /**
+     * Prints every record again. Pending repeat lines are printed.
+     *
+     * @since 1.7
+     */
+    public static void disableRepeatSuppression(){
+        synchronized (configLock){
+            RepeatFilter old = config.repeatFilter;
+            if(old==null){ return; }
+            LogConfig c = config.copy();
+            c.repeatFilter = null;
+            apply(c);
+            old.stop();
+        }
+    }
+
+    /**
+     * Writes records to binary log file instead of sinks. Nothing is formatted at write time:
+     * level, timestamp, class, tag, template and raw argument values are stored in compact form.
+     * File is read back by {@link BinaryLogDecoder}.
+     * <br>
+     * Records are written in blocks of 64K, use {@link #flush()} to write incomplete block.
+     * Incomplete block is also written after a second, at JVM exit and by {@link #enableGroupCommit(FlushPolicy)},
+     * so ERROR and "What a Terrible Failure" records are made durable at once.
+     *
+     * @param file binary log file, records are appended if file exists
+     * @throws IOException if file cannot be opened
+     * @since 1.7
+     */
+    public static void enableBinaryLog(File file) throws IOException {
+        if(file==null){ return; }
+        BinaryLog binaryLog = new BinaryLog(file);
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            BinaryLog old = c.binaryLog;
+            c.binaryLog = binaryLog;
+            apply(c);
+            closeQuietly(old);
+        }
+    }
+
+    /**
+     * Switches back to writing text records to sinks. Binary log file is closed.
+     *
+     * @since 1.7
+     */
+    public static void disableBinaryLog(){
+        synchronized (configLock){
+            BinaryLog old = config.binaryLog;
+            if(old==null){ return; }
+            LogConfig c = config.copy();
+            c.binaryLog = null;
+            apply(c);
+            closeQuietly(old);
+        }
+    }
+
+    /**
+     * Prints records as single-line JSON objects with fields timestamp, level, thread, class, tag, message
+     * and exception, instead of layout set by {@link #setLayout(String)}.
+     * Flags {@link #noTime()}, {@link #noClassName()} and {@link #noTag()} remove their fields.
+     *
+     * @since 1.7
+     */
+    public static void enableJsonLayout(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isJson = true;
+            apply(c);
+        }
+    }
+
+    /**
+     * Switches back to text layout
+     *
+     * @since 1.7
+     */
+    public static void disableJsonLayout(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.isJson = false;
+            apply(c);
+        }
+    }
+
+    /**
+     * Puts key to diagnostic context of current thread (aka MDC). Context is printed with every record
+     * of thread by %mdc token of layout and by JSON layout, like "requestId=42 user=bob".
+     * <br>
+     * Context is copied on change, not on logging: records just take reference to it.
+     *
+     * @param key key, like "requestId"
+     * @param value value, NULL removes key
+     * @since 1.7
+     */
+    public static void putContext(String key, String value){
+        if(key==null){ return; }
+        if(value==null){
+            LogContext.remove(key);
+            return;
+        }
+        LogContext.put(key, value);
+    }
+
+    /**
+     * Provides value from diagnostic context of current thread
+     *
+     * @param key key
+     * @return value or NULL
+     * @since 1.7
+     */
+    public static String getContext(String key){
+        LogContext c = LogContext.current();
+        if(key==null || c==null){ return null; }
+        return c.get(key);
+    }
+
+    /**
+     * Removes key from diagnostic context of current thread
+     *
+     * @param key key
+     * @since 1.7
+     */
+    public static void removeContext(String key){
+        if(key==null){ return; }
+        LogContext.remove(key);
+    }
+
+    /**
+     * Removes whole diagnostic context of current thread. Call it at end of request handled by pooled thread.
+     *
+     * @since 1.7
+     */
+    public static void clearContext(){
+        LogContext.clear();
+    }
+
+    /**
+     * Starts scope of current thread, like single request, with default size {@link #defaultScopeSize}
+     *
+     * @see #beginScope(int)
+     * @since 1.7
+     */
+    public static void beginScope(){
+        beginScope(defaultScopeSize);
+    }
+
+    /**
+     * Starts scope of current thread, like single request. Records of thread are held back till
+     * {@link #endScope(boolean)}: they are dropped if scope succeeds and printed as one block if it fails.
+     * ERROR record fails scope and prints what was held back at once.
+     * <br>
+     * Scopes may be nested, inner scope belongs to outer one.
+     *
+     * @param size max number of records held back, oldest are dropped when scope has more
+     * @since 1.7
+     */
+    public static void beginScope(int size){
+        if(size<=0){ return; }
+        LogScope.begin(size);
+    }
+
+    /**
+     * Ends scope of current thread
+     *
+     * @param failed true prints records of scope, false drops them (unless ERROR was logged in scope)
+     * @since 1.7
+     */
+    public static void endScope(boolean failed){
+        printBatch(LogScope.end(failed));
+    }
+
+    /**
+     * Keeps last {@link #defaultFlightRecorderSize} records below log level
+     *
+     * @see #enableFlightRecorder(int)
+     * @since 1.7
+     */
+    public static void enableFlightRecorder(){
+        enableFlightRecorder(defaultFlightRecorderSize);
+    }
+
+    /**
+     * Keeps last records, which are below log level, in memory without formatting them.
+     * They are printed right before next ERROR or "What a Terrible Failure" record, or by {@link #dumpFlightRecorder()}.
+     * So production may run at WARN level and still see debug records which led to failure.
+     * <br>
+     * Messages provided by suppliers are not recorded: supplier is never called for disabled level.
+     *
+     * @param size number of records kept, older ones are overwritten
+     * @since 1.7
+     */
+    public static void enableFlightRecorder(int size){
+        if(size<=0){ return; }
+        FlightRecorder recorder = new FlightRecorder(size);
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.recorder = recorder;
+            apply(c);
+        }
+    }
+
+    /**
+     * Stops keeping records below log level. Kept records are dropped.
+     *
+     * @since 1.7
+     */
+    public static void disableFlightRecorder(){
+        synchronized (configLock){
+            if(config.recorder==null){ return; }
+            LogConfig c = config.copy();
+            c.recorder = null;
+            apply(c);
+        }
+    }
+
+    /**
+     * Prints records kept by flight recorder since previous dump
+     *
+     * @since 1.7
+     */
+    public static void dumpFlightRecorder(){
+        LogConfig c = config;
+        if(c.recorder==null){ return; }
+        dump(c, c.recorder);
+    }
+
+    /**
+     * Starts counting records, bytes, limited and repeated records per level and per sink,
+     * and measuring format time, write time and async queue wait.
+     * Metrics are provided by {@link #getStats()} and by JMX MBean "net.virtalab.logger:type=Log".
+     * <br>
+     * Counters are striped, so measuring takes no lock. Enabling again restarts from zero.
+     *
+     * @since 1.7
+     */
+    public static void enableMetrics(){
+        LogMetrics metrics = new LogMetrics();
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.metrics = metrics;
+            apply(c);
+            metrics.register();
+        }
+    }
+
+    /**
+     * Stops measuring and unregisters JMX MBean
+     *
+     * @since 1.7
+     */
+    public static void disableMetrics(){
+        synchronized (configLock){
+            LogMetrics old = config.metrics;
+            if(old==null){ return; }
+            LogConfig c = config.copy();
+            c.metrics = null;
+            apply(c);
+            old.unregister();
+        }
+    }
+
+    /**
+     * Provides snapshot of metrics
+     *
+     * @return metrics since {@link #enableMetrics()}, all zero if metrics are disabled
+     * @since 1.7
+     */
+    public static LogStats getStats(){
+        LogMetrics m = config.metrics;
+        if(m==null){
+            m = new LogMetrics();
+        }
+        return m.snapshot(getQueueDepth());
+    }
+
+    /**
+     * Provides number of records waiting for writer thread
+     *
+     * @return queue depth, 0 in sync mode
+     */
+    static int getQueueDepth(){
+        AsyncWriter writer = asyncWriter;
+        return writer==null ? 0 : writer.depth();
+    }
+
+    /**
+     * Switches logger to async mode with default queue size {@link #defaultAsyncQueueSize}
+     *
+     * @see #enableAsync(int)
+     * @since 1.7
+     */
+    public static void enableAsync(){
+        enableAsync(defaultAsyncQueueSize);
     }
+
     /**
-     * Updates (sets) new current log level {@link #currentLogLevel}
+     * Switches logger to async mode.
+     * Caller thread only captures log record and puts it to bounded queue,
+     * formatting and writing to stream is done by dedicated writer thread.
+     * When queue is full, caller waits for free space, so no record is lost.
+     * Records from same thread are published in same order they were logged.
+     * Pending records are flushed on {@link #disableAsync()} and on JVM shutdown.
+     *
+     * @param queueSize max number of records waiting for writer thread
+     * @since 1.7
+     */
+    public static synchronized void enableAsync(int queueSize){
+        if(queueSize<=0){ return; }
+        disableAsync();
+        asyncWriter = new AsyncWriter(queueSize);
+    }
+
+    /**
+     * Flushes all pending records and switches logger back to sync mode.
+     * Does nothing if logger is not in async mode.
+     *
+     * @since 1.7
+     */
+    public static synchronized void disableAsync(){
+        AsyncWriter writer = asyncWriter;
+        if(writer==null){ return; }
+        asyncWriter = null;
+        writer.shutdown();
+    }
+
+    /**
+     * Updates (sets) new current log level
+     * Normally you define it ones at application startup,
+     * but also possible to update as many times as you want
      *
      * @param logLevel desirable log level
      */
     public static void updateCurrentLogLevel(LogLevel logLevel) {
         if(logLevel==null){ return; }
-        Log.currentLogLevel = logLevel;
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.level = logLevel;
+            apply(c);
+        }
+    }
+
+    /**
+     * Sets log level for tag and its sub-tags: level for "db" applies to "db.pool" as well,
+     * unless "db.pool" has its own level. Tags without level use current log level.
+     *
+     * @param tag tag aka prefix
+     * @param level desirable log level for this tag
+     * @since 1.7
+     */
+    public static void setLevelForTag(String tag, LogLevel level){
+        if(tag==null || tag.isEmpty() || level==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.tagLevelMatrix.put(tag, level);
+            apply(c);
+        }
+    }
+
+    /**
+     * Removes log level set for tag, so tag uses level of its parent or current log level again
+     *
+     * @param tag tag aka prefix
+     * @since 1.7
+     */
+    public static void removeLevelForTag(String tag){
+        if(tag==null){ return; }
+        synchronized (configLock){
+            if(!config.tagLevelMatrix.containsKey(tag)){ return; }
+            LogConfig c = config.copy();
+            c.tagLevelMatrix.remove(tag);
+            apply(c);
+        }
+    }
+
+    /**
+     * Limits records of tag. Records above limit are dropped, their number is reported periodically.
+     *
+     * @param tag tag aka prefix
+     * @param limit limit like {@link LogLimit#perSecond(int)} or {@link LogLimit#sample(int)}, null removes limit
+     * @since 1.7
+     */
+    public static void limitTag(String tag, LogLimit limit){
+        if(tag==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.limits = LogLimits.withTag(c.limits, tag, limit);
+            applyLimits(c);
+        }
+    }
+
+    /**
+     * Limits records of level. Records above limit are dropped, their number is reported periodically.
+     *
+     * @param level log level
+     * @param limit limit like {@link LogLimit#perSecond(int)} or {@link LogLimit#sample(int)}, null removes limit
+     * @since 1.7
+     */
+    public static void limitLevel(LogLevel level, LogLimit limit){
+        if(level==null){ return; }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.limits = LogLimits.withLevel(c.limits, level, limit);
+            applyLimits(c);
+        }
+    }
+
+    /**
+     * Limits records of every call site separately: each line of code, which calls Log, gets its own limit.
+     * Finding call site needs stack walk for every record, so it is more expensive than other limits.
+     *
+     * @param limit limit like {@link LogLimit#perSecond(int)} or {@link LogLimit#sample(int)}, null removes limit
+     * @since 1.7
+     */
+    public static void limitCallSites(LogLimit limit){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.limits = LogLimits.withCallSites(c.limits, limit);
+            applyLimits(c);
+        }
+    }
+
+    /**
+     * Removes all limits
+     *
+     * @since 1.7
+     */
+    public static void removeLimits(){
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.limits = null;
+            applyLimits(c);
+        }
+    }
+
+    /**
+     * Prints number of records suppressed by limits since previous report as WARN records.
+     * Normally it is done by background thread periodically.
+     *
+     * @since 1.7
+     */
+    public static void reportSuppressed(){
+        LogConfig c = config;
+        if(c.limits==null){ return; }
+        for(Limiter limiter : c.limits.limiters()){
+            long suppressed = limiter.takeSuppressed();
+            if(suppressed>0 && c.level.priority >= LogLevel.WARN.priority){
+                LogObject l = createLogObject(c, LogLevel.WARN,
+                        "Suppressed "+suppressed+" records above limit "+limiter.limit+" of "+limiter.name);
+                //report is about limited records, not about thread, which reports them
+                l.className = limiter.className;
+                printIt(l);
+            }
+        }
     }
 
     /**
@@ -152,7 +876,51 @@ public class Log {
         if(timestampFormat==null || timestampFormat.isEmpty()){
             return;
         }
-        Log.currentTimestampFormat = timestampFormat;
+        TimestampFormatter formatter;
+        try {
+            formatter = new TimestampFormatter(timestampFormat);
+        }catch (IllegalArgumentException e){
+            formatter = new TimestampFormatter(defaultTimestampFormat);
+        }
+        synchronized (configLock){
+            LogConfig c = config.copy();
+            c.timestampFormat = timestampFormat;
+            c.timestampFormatter = formatter;
+            apply(c);
+        }
+    }
+
+    /**
+     * Takes timestamps from cached value, which is updated by background thread every millisecond,
+     * instead of asking system time for every record
+     *
+     * @see #enableCoarseClock(int)
+     * @since 1.7
+     */
+    public static void enableCoarseClock(){
+        enableCoarseClock(1);
+    }
+
+    /**
+     * Takes timestamps from cached value, which is updated by background thread,
+     * instead of asking system time for every record.
+     * Makes sense during heavy bursts of records, but timestamps may be behind real time by resolution.
+     *
+     * @param resolutionMillis how often cached time is updated (in millis)
+     * @since 1.7
+     */
+    public static void enableCoarseClock(int resolutionMillis){
+        if(resolutionMillis<=0){ return; }
+        Clock.coarse(resolutionMillis);
+    }
+
+    /**
+     * Switches back to asking system time for every record
+     *
+     * @since 1.7
+     */
+    public static void disableCoarseClock(){
+        Clock.precise();
     }
 
     /**
@@ -161,7 +929,7 @@ public class Log {
      * @return current value of log level
      */
     public static LogLevel getCurrentLogLevel() {
-        return currentLogLevel;
+        return config.level;
     }
 
     /**
@@ -170,7 +938,7 @@ public class Log {
      * @return int value of current log level
      */
     public static int getCurrentLogLevelAsInt() {
-        return currentLogLevel.asInt();
+        return config.level.asInt();
     }
 
     /**
@@ -180,9 +948,13 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void trace(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority) {
-            LogObject l = createLogObject(LogLevel.TRACE, tag, message);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.TRACE.priority && c.permits(tag, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, tag, message);
             printIt(l);
+        } else if(c.records(tag, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, tag, message));
         }
     }
 
@@ -192,9 +964,13 @@ public class Log {
      * @param message message to log
      */
     public static void trace(String message){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority) {
-            LogObject l = createLogObject(LogLevel.TRACE, message);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.TRACE.priority && c.permits(null, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, message);
             printIt(l);
+        } else if(c.records(null, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, message));
         }
     }
 
@@ -206,9 +982,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void trace(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority) {
-            LogObject l = createLogObject(LogLevel.TRACE, tag, message, t);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.TRACE.priority && c.permits(tag, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, tag, message, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, tag, message, t));
         }
     }
 
@@ -219,9 +999,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void trace(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority) {
-            LogObject l = createLogObject(LogLevel.TRACE, tag, t);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.TRACE.priority && c.permits(tag, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, tag, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, tag, t));
         }
     }
 
@@ -231,9 +1015,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void trace(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority) {
-            LogObject l = createLogObject(LogLevel.TRACE, t);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.TRACE.priority && c.permits(null, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, t);
             printIt(l);
+        } else if(c.records(null, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, t));
         }
     }
 
@@ -244,11 +1032,68 @@ public class Log {
      * @since 1.6
      */
     public static void trace(Object o){
-        if(currentLogLevel.priority >= LogLevel.TRACE.priority){
-            LogObject l  = createLogObject(LogLevel.TRACE, o);
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.TRACE.priority && c.permits(null, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, o));
+        }
+    }
+
+    /**
+     * Prints tag and TRACE message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if TRACE level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void trace(String tag, String template, Object... args){
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.TRACE.priority && c.permits(tag, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, tag, template, args);
             printIt(l);
+        } else if(c.records(tag, LogLevel.TRACE)) {
+            record(createLogObject(c, LogLevel.TRACE, tag, template, args));
         }
-	}
+    }
+
+    /**
+     * Prints tag and TRACE message provided by supplier.
+     * Supplier is called only if TRACE level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void trace(String tag, Supplier<String> message){
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.TRACE.priority && c.permits(tag, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, tag, message);
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints TRACE message provided by supplier.
+     * Supplier is called only if TRACE level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void trace(Supplier<String> message){
+        if(!LevelSwitch.trace()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.TRACE.priority && c.permits(null, LogLevel.TRACE)) {
+            LogObject l = createLogObject(c, LogLevel.TRACE, message);
+            printIt(l);
+        }
+    }
 
     /**
      * Prints tag and TRACE message
@@ -309,6 +1154,42 @@ public class Log {
         trace(o);
     }
 
+    /**
+     * Prints tag and TRACE message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if TRACE level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void t(String tag, String template, Object... args){
+        trace(tag, template, args);
+    }
+
+    /**
+     * Prints tag and TRACE message provided by supplier.
+     * Supplier is called only if TRACE level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void t(String tag, Supplier<String> message){
+        trace(tag, message);
+    }
+
+    /**
+     * Prints TRACE message provided by supplier.
+     * Supplier is called only if TRACE level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void t(Supplier<String> message){
+        trace(message);
+    }
+
     /**
      * Prints tag and DEBUG message
      *
@@ -316,9 +1197,13 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void debug(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority) {
-            LogObject l = createLogObject(LogLevel.DEBUG, tag, message);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.DEBUG.priority && c.permits(tag, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, tag, message);
             printIt(l);
+        } else if(c.records(tag, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, tag, message));
         }
     }
 
@@ -328,9 +1213,13 @@ public class Log {
      * @param message message to log
      */
     public static void debug(String message){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority) {
-            LogObject l = createLogObject(LogLevel.DEBUG, message);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.DEBUG.priority && c.permits(null, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, message);
             printIt(l);
+        } else if(c.records(null, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, message));
         }
     }
 
@@ -342,9 +1231,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void debug(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority) {
-            LogObject l = createLogObject(LogLevel.DEBUG, tag, message, t);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.DEBUG.priority && c.permits(tag, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, tag, message, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, tag, message, t));
         }
     }
 
@@ -355,9 +1248,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void debug(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority) {
-            LogObject l = createLogObject(LogLevel.DEBUG, tag, t);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.DEBUG.priority && c.permits(tag, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, tag, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, tag, t));
         }
     }
 
@@ -367,9 +1264,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void debug(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority) {
-            LogObject l = createLogObject(LogLevel.DEBUG, t);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.DEBUG.priority && c.permits(null, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, t);
             printIt(l);
+        } else if(c.records(null, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, t));
         }
     }
 
@@ -380,8 +1281,65 @@ public class Log {
      * @since 1.6
      */
     public static void debug(Object o){
-        if(currentLogLevel.priority >= LogLevel.DEBUG.priority){
-            LogObject l  = createLogObject(LogLevel.DEBUG, o);
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.DEBUG.priority && c.permits(null, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, o));
+        }
+    }
+
+    /**
+     * Prints tag and DEBUG message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if DEBUG level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void debug(String tag, String template, Object... args){
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.DEBUG.priority && c.permits(tag, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, tag, template, args);
+            printIt(l);
+        } else if(c.records(tag, LogLevel.DEBUG)) {
+            record(createLogObject(c, LogLevel.DEBUG, tag, template, args));
+        }
+    }
+
+    /**
+     * Prints tag and DEBUG message provided by supplier.
+     * Supplier is called only if DEBUG level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void debug(String tag, Supplier<String> message){
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.DEBUG.priority && c.permits(tag, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, tag, message);
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints DEBUG message provided by supplier.
+     * Supplier is called only if DEBUG level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void debug(Supplier<String> message){
+        if(!LevelSwitch.debug()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.DEBUG.priority && c.permits(null, LogLevel.DEBUG)) {
+            LogObject l = createLogObject(c, LogLevel.DEBUG, message);
             printIt(l);
         }
     }
@@ -445,6 +1403,42 @@ public class Log {
         debug(o);
     }
 
+    /**
+     * Prints tag and DEBUG message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if DEBUG level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void d(String tag, String template, Object... args){
+        debug(tag, template, args);
+    }
+
+    /**
+     * Prints tag and DEBUG message provided by supplier.
+     * Supplier is called only if DEBUG level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void d(String tag, Supplier<String> message){
+        debug(tag, message);
+    }
+
+    /**
+     * Prints DEBUG message provided by supplier.
+     * Supplier is called only if DEBUG level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void d(Supplier<String> message){
+        debug(message);
+    }
+
     /**
      * Prints tag and INFO message
      *
@@ -452,9 +1446,13 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void info(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority) {
-            LogObject l = createLogObject(LogLevel.INFO, tag, message);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.INFO.priority && c.permits(tag, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, tag, message);
             printIt(l);
+        } else if(c.records(tag, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, tag, message));
         }
     }
 
@@ -464,9 +1462,13 @@ public class Log {
      * @param message message to log
      */
     public static void info(String message){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority) {
-            LogObject l = createLogObject(LogLevel.INFO, message);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.INFO.priority && c.permits(null, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, message);
             printIt(l);
+        } else if(c.records(null, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, message));
         }
     }
 
@@ -478,9 +1480,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void info(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority) {
-            LogObject l = createLogObject(LogLevel.INFO, tag, message, t);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.INFO.priority && c.permits(tag, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, tag, message, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, tag, message, t));
         }
     }
 
@@ -491,9 +1497,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void info(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority) {
-            LogObject l = createLogObject(LogLevel.INFO, tag, t);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.INFO.priority && c.permits(tag, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, tag, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, tag, t));
         }
     }
 
@@ -503,9 +1513,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void info(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority) {
-            LogObject l = createLogObject(LogLevel.INFO, t);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.INFO.priority && c.permits(null, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, t);
             printIt(l);
+        } else if(c.records(null, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, t));
         }
     }
 
@@ -516,8 +1530,65 @@ public class Log {
      * @since 1.6
      */
     public static void info(Object o){
-        if(currentLogLevel.priority >= LogLevel.INFO.priority){
-            LogObject l  = createLogObject(LogLevel.INFO, o);
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.INFO.priority && c.permits(null, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, o));
+        }
+    }
+
+    /**
+     * Prints tag and INFO message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if INFO level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void info(String tag, String template, Object... args){
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.INFO.priority && c.permits(tag, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, tag, template, args);
+            printIt(l);
+        } else if(c.records(tag, LogLevel.INFO)) {
+            record(createLogObject(c, LogLevel.INFO, tag, template, args));
+        }
+    }
+
+    /**
+     * Prints tag and INFO message provided by supplier.
+     * Supplier is called only if INFO level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void info(String tag, Supplier<String> message){
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.INFO.priority && c.permits(tag, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, tag, message);
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints INFO message provided by supplier.
+     * Supplier is called only if INFO level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void info(Supplier<String> message){
+        if(!LevelSwitch.info()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.INFO.priority && c.permits(null, LogLevel.INFO)) {
+            LogObject l = createLogObject(c, LogLevel.INFO, message);
             printIt(l);
         }
     }
@@ -572,13 +1643,49 @@ public class Log {
     }
 
     /**
-     * Prints any object using its string representation {@link Object#toString()} at INFO level
+     * Prints any object using its string representation {@link Object#toString()} at INFO level
+     *
+     * @param o any object
+     * @since 1.6
+     */
+    public static void i(Object o){
+        info(o);
+    }
+
+    /**
+     * Prints tag and INFO message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if INFO level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void i(String tag, String template, Object... args){
+        info(tag, template, args);
+    }
+
+    /**
+     * Prints tag and INFO message provided by supplier.
+     * Supplier is called only if INFO level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void i(String tag, Supplier<String> message){
+        info(tag, message);
+    }
+
+    /**
+     * Prints INFO message provided by supplier.
+     * Supplier is called only if INFO level is enabled.
      *
-     * @param o any object
-     * @since 1.6
+     * @param message supplier of message
+     * @since 1.7
      */
-    public static void i(Object o){
-        info(o);
+    public static void i(Supplier<String> message){
+        info(message);
     }
 
     /**
@@ -588,9 +1695,13 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void warn(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority) {
-            LogObject l = createLogObject(LogLevel.WARN, tag, message);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.WARN.priority && c.permits(tag, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, tag, message);
             printIt(l);
+        } else if(c.records(tag, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, tag, message));
         }
     }
 
@@ -600,9 +1711,13 @@ public class Log {
      * @param message message to log
      */
     public static void warn(String message){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority) {
-            LogObject l = createLogObject(LogLevel.WARN, message);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.WARN.priority && c.permits(null, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, message);
             printIt(l);
+        } else if(c.records(null, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, message));
         }
     }
 
@@ -614,9 +1729,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void warn(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority) {
-            LogObject l = createLogObject(LogLevel.WARN, tag, message, t);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.WARN.priority && c.permits(tag, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, tag, message, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, tag, message, t));
         }
     }
 
@@ -627,9 +1746,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void warn(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority) {
-            LogObject l = createLogObject(LogLevel.WARN, tag, t);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.WARN.priority && c.permits(tag, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, tag, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, tag, t));
         }
     }
 
@@ -639,9 +1762,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void warn(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority) {
-            LogObject l = createLogObject(LogLevel.WARN, t);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.WARN.priority && c.permits(null, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, t);
             printIt(l);
+        } else if(c.records(null, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, t));
         }
     }
 
@@ -652,8 +1779,65 @@ public class Log {
      * @since 1.6
      */
     public static void warn(Object o){
-        if(currentLogLevel.priority >= LogLevel.WARN.priority){
-            LogObject l  = createLogObject(LogLevel.WARN, o);
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.WARN.priority && c.permits(null, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, o));
+        }
+    }
+
+    /**
+     * Prints tag and WARNING message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if WARN level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void warn(String tag, String template, Object... args){
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.WARN.priority && c.permits(tag, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, tag, template, args);
+            printIt(l);
+        } else if(c.records(tag, LogLevel.WARN)) {
+            record(createLogObject(c, LogLevel.WARN, tag, template, args));
+        }
+    }
+
+    /**
+     * Prints tag and WARNING message provided by supplier.
+     * Supplier is called only if WARN level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void warn(String tag, Supplier<String> message){
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.WARN.priority && c.permits(tag, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, tag, message);
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints WARNING message provided by supplier.
+     * Supplier is called only if WARN level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void warn(Supplier<String> message){
+        if(!LevelSwitch.warn()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.WARN.priority && c.permits(null, LogLevel.WARN)) {
+            LogObject l = createLogObject(c, LogLevel.WARN, message);
             printIt(l);
         }
     }
@@ -717,6 +1901,42 @@ public class Log {
         warn(o);
     }
 
+    /**
+     * Prints tag and WARNING message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if WARN level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void w(String tag, String template, Object... args){
+        warn(tag, template, args);
+    }
+
+    /**
+     * Prints tag and WARNING message provided by supplier.
+     * Supplier is called only if WARN level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void w(String tag, Supplier<String> message){
+        warn(tag, message);
+    }
+
+    /**
+     * Prints WARNING message provided by supplier.
+     * Supplier is called only if WARN level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void w(Supplier<String> message){
+        warn(message);
+    }
+
     /**
      * Prints tag and ERROR message
      *
@@ -724,9 +1944,13 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void error(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, message);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message);
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, tag, message));
         }
     }
 
@@ -736,9 +1960,13 @@ public class Log {
      * @param message message to log
      */
     public static void error(String message){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, message);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, message);
             printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, message));
         }
     }
 
@@ -750,9 +1978,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void error(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, message, t);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, tag, message, t));
         }
     }
 
@@ -763,9 +1995,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void error(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, t);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, t);
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, tag, t));
         }
     }
 
@@ -775,9 +2011,13 @@ public class Log {
      * @param t exception or error object
      */
     public static void error(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, t);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, t);
             printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, t));
         }
     }
 
@@ -788,8 +2028,65 @@ public class Log {
      * @since 1.6
      */
     public static void error(Object o){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority){
-            LogObject l  = createLogObject(LogLevel.ERROR, o);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, o));
+        }
+    }
+
+    /**
+     * Prints tag and ERROR message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void error(String tag, String template, Object... args){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, template, args);
+            printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, tag, template, args));
+        }
+    }
+
+    /**
+     * Prints tag and ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void error(String tag, Supplier<String> message){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message);
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void error(Supplier<String> message){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, message);
             printIt(l);
         }
     }
@@ -853,6 +2150,42 @@ public class Log {
         error(o);
     }
 
+    /**
+     * Prints tag and ERROR message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void err(String tag, String template, Object... args){
+        error(tag, template, args);
+    }
+
+    /**
+     * Prints tag and ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void err(String tag, Supplier<String> message){
+        error(tag, message);
+    }
+
+    /**
+     * Prints ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void err(Supplier<String> message){
+        error(message);
+    }
+
     /**
      * Prints tag and ERROR message
      *
@@ -912,6 +2245,42 @@ public class Log {
         error(o);
     }
 
+    /**
+     * Prints tag and ERROR message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void e(String tag, String template, Object... args){
+        error(tag, template, args);
+    }
+
+    /**
+     * Prints tag and ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void e(String tag, Supplier<String> message){
+        error(tag, message);
+    }
+
+    /**
+     * Prints ERROR message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void e(Supplier<String> message){
+        error(message);
+    }
+
     /**
      * Prints tag and "What the failure?" message. Report problem that should never happen
      *
@@ -919,10 +2288,16 @@ public class Log {
      * @param message ready-to-print message
      */
     public static void wtf(String tag, String message){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, message);
-            l.letter = "WTF";
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message);
+            if(l!=null){ l.wtf = true; }
+            record(l);
         }
     }
 
@@ -932,10 +2307,16 @@ public class Log {
      * @param message message to log
      */
     public static void wtf(String message){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, message);
-            l.letter = "WTF";
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, message);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, message);
+            if(l!=null){ l.wtf = true; }
+            record(l);
         }
     }
 
@@ -947,10 +2328,16 @@ public class Log {
      * @param t exception or error object
      */
     public static void wtf(String tag, String message, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, message, t);
-            l.letter = "WTF";
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message, t);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message, t);
+            if(l!=null){ l.wtf = true; }
+            record(l);
         }
     }
 
@@ -961,10 +2348,16 @@ public class Log {
      * @param t exception or error object
      */
     public static void wtf(String tag, Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, tag, t);
-            l.letter = "WTF";
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, t);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, t);
+            if(l!=null){ l.wtf = true; }
+            record(l);
         }
     }
 
@@ -974,10 +2367,16 @@ public class Log {
      * @param t exception or error object
      */
     public static void wtf(Throwable t){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority) {
-            LogObject l = createLogObject(LogLevel.ERROR, t);
-            l.letter = "WTF";
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, t);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, t);
+            if(l!=null){ l.wtf = true; }
+            record(l);
         }
     }
 
@@ -988,8 +2387,70 @@ public class Log {
      * @since 1.6
      */
     public static void wtf(Object o){
-        if(currentLogLevel.priority >= LogLevel.ERROR.priority){
-            LogObject l  = createLogObject(LogLevel.ERROR, o);
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, o);
+            printIt(l);
+        } else if(c.records(null, LogLevel.ERROR)) {
+            record(createLogObject(c, LogLevel.ERROR, o));
+        }
+    }
+
+    /**
+     * Prints tag and "What the failure?" message built from template.
+     * Every {} in template is replaced by next argument. Template is formatted only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @since 1.7
+     */
+    public static void wtf(String tag, String template, Object... args){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, template, args);
+            if(l!=null){ l.wtf = true; }
+            printIt(l);
+        } else if(c.records(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, template, args);
+            if(l!=null){ l.wtf = true; }
+            record(l);
+        }
+    }
+
+    /**
+     * Prints tag and "What the failure?" message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param tag tag aka prefix
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void wtf(String tag, Supplier<String> message){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.priorityOf(tag) >= LogLevel.ERROR.priority && c.permits(tag, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, tag, message);
+            if(l!=null){ l.wtf = true; }
+            printIt(l);
+        }
+    }
+
+    /**
+     * Prints "What the failure?" message provided by supplier.
+     * Supplier is called only if ERROR level is enabled.
+     *
+     * @param message supplier of message
+     * @since 1.7
+     */
+    public static void wtf(Supplier<String> message){
+        if(!LevelSwitch.error()){ return; }
+        LogConfig c = config;
+        if(c.level.priority >= LogLevel.ERROR.priority && c.permits(null, LogLevel.ERROR)) {
+            LogObject l = createLogObject(c, LogLevel.ERROR, message);
+            if(l!=null){ l.wtf = true; }
             printIt(l);
         }
     }
@@ -997,137 +2458,340 @@ public class Log {
     //FOLLOWING METHODS AND CLASSES ARE PRIVATE API
 
     /**
-     * Prepares message and prints it
+     * Prepares changed configuration and publishes it. Called under {@link #configLock}
+     *
+     * @param c changed copy of configuration
+     */
+    private static void apply(LogConfig c){
+        c.prepare();
+        config = c;
+        LevelSwitch.update(c);
+    }
+
+    private static void closeQuietly(BinaryLog binaryLog){
+        if(binaryLog==null){ return; }
+        try {
+            binaryLog.close();
+        } catch (IOException e){
+            //nothing to do, records are lost anyway
+        }
+    }
+
+    /**
+     * Publishes configuration with changed limits, starts or stops reporting of suppressed records
+     *
+     * @param c new configuration
+     */
+    private static void applyLimits(LogConfig c){
+        apply(c);
+        if(c.limits!=null){
+            LogLimits.startReporter();
+        } else {
+            LogLimits.stopReporter();
+        }
+    }
+
+    /**
+     * Prepares message and prints it.
+     * In async mode only hands log object over to writer thread.
+     *
      * @param l log object
      */
     private static void printIt(LogObject l){
+        if(l==null){
+            //record may have been allowed by call site limit, which keeps its caller for record
+            CallerResolver.forgetCallSite();
+            return;
+        }
+        FlightRecorder recorder = l.config.recorder;
+        if(recorder!=null && l.level==LogLevel.ERROR){
+            //context goes right before failure
+            dump(l.config, recorder);
+        }
+        LogScope scope = LogScope.current();
+        if(scope!=null){
+            List<LogObject> batch = scope.hold(l);
+            LogObjectPool.release(l);
+            if(batch!=null){
+                printBatch(batch);
+            }
+            return;
+        }
+        dispatch(l);
+    }
+
+    /**
+     * Prints records of scope as one block
+     *
+     * @param records records of scope, oldest first
+     */
+    private static void printBatch(List<LogObject> records){
+        if(records==null || records.isEmpty()){ return; }
+        LogObject holder = new LogObject(records.get(0).level);
+        holder.config = config;
+        holder.batch = records;
+        dispatch(holder);
+    }
+
+    /**
+     * Keeps log object, which is below log level, in flight recorder
+     *
+     * @param l log object or NULL
+     */
+    private static void record(LogObject l){
         if(l==null){ return; }
-        String ready2PrintMessage = makeString(l);
-        publish(l.level, ready2PrintMessage);
+        FlightRecorder recorder = l.config.recorder;
+        if(recorder!=null){
+            recorder.record(l);
+        }
+        LogObjectPool.release(l);
     }
 
     /**
-     * Prints message
+     * Prints records kept by flight recorder
      *
-     * @param level log level
-     * @param message ready-to-print message
+     * @param c configuration snapshot
+     * @param recorder flight recorder
      */
-    private static void publish(LogLevel level, String message){
-        if(level==null || message==null){return; }
-        if(streamMatrix.containsKey(level)){
-            PrintStream stream = streamMatrix.get(level);
-            stream.println(message);
+    private static void dump(LogConfig c, FlightRecorder recorder){
+        for(LogObject r : recorder.drain()){
+            r.config = c;
+            dispatch(r);
         }
     }
 
     /**
-     * Produces log string from LogObject
+     * Gives log object to writer thread in async mode or writes it at once
      *
-     * @param logObject log object with all properties set
-     * @return ready-to-print string
+     * @param l log object
      */
-    private static String makeString(LogObject logObject){
-        StringBuilder sb = new StringBuilder();
-        sb.append(logObject.color);
-        if(isLetterEnabled){
-            sb.append(logObject.letter).append(" ");
+    private static void dispatch(LogObject l){
+        AsyncWriter writer = asyncWriter;
+        if(writer!=null){
+            //arguments may change before writer thread formats them
+            if(l.pool==LogObjectPool.SHARED && l.args!=null){
+                //pooled object keeps its copy, so it is made without allocation
+                l.argsCopy = MessageTemplate.freeze(l.args, l.argsCopy);
+                l.args = l.argsCopy;
+            } else {
+                l.args = MessageTemplate.freeze(l.args);
+            }
+            if(l.config.metrics!=null){
+                l.queuedAt = System.nanoTime();
+            }
+            if(writer.enqueue(l)){
+                return;
+            }
         }
-        if(isTimeEnabled){
-            String ts = getTimeStamp();
-            sb.append(ts).append(" ");
+        write(l);
+    }
+
+    /**
+     * Formats log object and publishes it. Called from caller thread in sync mode
+     * and from writer thread in async mode.
+     *
+     * @param l log object
+     */
+    static void write(LogObject l){
+        if(l.batch!=null){
+            writeBatch(l.config, l.batch);
+            return;
         }
-        if(isClassNameEnabled){
-            String clsName = getCallerClassName();
-            if(clsName!=null){
-                sb.append(clsName).append(" ");
+        LogConfig c = l.config;
+        RepeatFilter repeatFilter = c.repeatFilter;
+        if(repeatFilter!=null && c.sinkMatrix.get(l.level)!=null){
+            if(!repeatFilter.write(l)){
+                if(c.metrics!=null){
+                    c.metrics.repeated(l.level);
+                }
+                LogObjectPool.release(l);
             }
+            return;
         }
-        if(isTagEnabled && logObject.tag!=null){
-            if(! logObject.tag.isEmpty()){
-                sb.append(logObject.tag).append(" ");
+        writeThrough(l);
+    }
+
+    /**
+     * Formats log object and publishes it without repeat check
+     *
+     * @param l log object
+     */
+    static void writeThrough(LogObject l){
+        LogConfig c = l.config;
+        LogMetrics m = c.metrics;
+        BinaryLog binaryLog = c.binaryLog;
+        if(binaryLog!=null){
+            try {
+                int bytes = binaryLog.write(l);
+                if(m!=null){
+                    //record is not formatted and block is written later, so it has no times of its own
+                    m.recorded(l.level, bytes);
+                }
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
             }
+            GroupCommit groupCommit = c.groupCommit;
+            if(groupCommit!=null){
+                groupCommit.recorded(c, l.level, l.wtf);
+            }
+            LogObjectPool.release(l);
+            return;
         }
-        if(logObject.message!=null){
-            if(! logObject.message.isEmpty()){
-                sb.append(logObject.message);
+        RecordBuffer buffer = RecordBuffer.acquire();
+        try {
+            long started = m==null ? 0 : System.nanoTime();
+            c.layout.format(l, buffer.text);
+            buffer.text.append(NEWLINE);
+            buffer.encode();
+            ByteBuffer record = buffer.asByteBuffer();
+            if(m==null){
+                publish(c, l.level, record);
+            } else {
+                int bytes = record.remaining();
+                long formatted = System.nanoTime();
+                publish(c, l.level, record);
+                m.recorded(l.level, bytes, formatted - started, System.nanoTime() - formatted);
             }
+        } finally {
+            buffer.release();
         }
-        if(logObject.th!=null){
-            sb.append(NEWLINE);
-            sb.append(getStackTrace(logObject.th));
+        GroupCommit groupCommit = c.groupCommit;
+        if(groupCommit!=null){
+            groupCommit.recorded(c, l.level, l.wtf);
         }
-        sb.append(Color.RESET);
-        return sb.toString();
+        LogObjectPool.release(l);
     }
 
     /**
-     * Finds short name of class that called Log method
+     * Formats records and publishes them without repeat check. Neighbour records going to same sinks
+     * are written by single call, so records of other threads cannot get between them.
      *
-     * @return string contains name of class or NULL in case of error
+     * @param c configuration snapshot
+     * @param records log objects, oldest first
      */
-    private static String getCallerClassName() {
-        StackTraceElement[] stElements = Thread.currentThread().getStackTrace();
-        for (int i = 1; i < stElements.length; i++) {
-            StackTraceElement ste = stElements[i];
-            if (!ste.getClassName().equals(Log.class.getName()) && ste.getClassName().indexOf("java.lang.Thread") != 0) {
-                String fullName = ste.getClassName();
-                String[] arr = fullName.split("\\.");
-                if(arr.length>=1){
-                    return arr[arr.length-1];
-                } else {
-                    return ste.getClassName();
+    private static void writeBatch(LogConfig c, List<LogObject> records){
+        if(c.binaryLog!=null){
+            for(LogObject l : records){
+                l.config = c;
+                writeThrough(l);
+            }
+            return;
+        }
+        LogMetrics m = c.metrics;
+        RecordBuffer buffer = RecordBuffer.acquire();
+        try {
+            int i = 0;
+            while(i<records.size()){
+                LogLevel level = records.get(i).level;
+                Sink[] sinks = c.sinkMatrix.get(level);
+                //levels with same sinks share array, see LogConfig.prepare()
+                int end = i;
+                buffer.text.setLength(0);
+                long started = m==null ? 0 : System.nanoTime();
+                while(end<records.size() && c.sinkMatrix.get(records.get(end).level)==sinks){
+                    LogObject l = records.get(end);
+                    l.config = c;
+                    c.layout.format(l, buffer.text);
+                    buffer.text.append(NEWLINE);
+                    end++;
                 }
-
+                buffer.encode();
+                ByteBuffer block = buffer.asByteBuffer();
+                int bytes = block.remaining();
+                long formatted = m==null ? 0 : System.nanoTime();
+                if(sinks!=null){
+                    publish(c, sinks, level, block, end - i);
+                }
+                if(m!=null){
+                    //block is encoded and written at once, so its size and times are shared by its records
+                    int count = end - i;
+                    long formatNanos = (formatted - started) / count;
+                    long writeNanos = (System.nanoTime() - formatted) / count;
+                    for(int j=i;j<end;j++){
+                        int share = bytes / count + (j - i < bytes % count ? 1 : 0);
+                        m.recorded(records.get(j).level, share, formatNanos, writeNanos);
+                    }
+                }
+                GroupCommit groupCommit = c.groupCommit;
+                if(groupCommit!=null){
+                    for(int j=i;j<end;j++){
+                        groupCommit.recorded(c, records.get(j).level, records.get(j).wtf);
+                    }
+                }
+                i = end;
             }
+        } finally {
+            buffer.release();
         }
-        return null;
     }
 
     /**
-     * Throwable's stacktrace to String
+     * Prints encoded record
      *
-     * @param t throwable with its stacktrace
-     * @return string with stacktrace
+     * @param c configuration snapshot
+     * @param level log level
+     * @param record UTF-8 encoded record with line separator
      */
-    private static String getStackTrace(Throwable t){
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        t.printStackTrace(pw);
-        return sw.toString();
+    private static void publish(LogConfig c, LogLevel level, ByteBuffer record){
+        Sink[] sinks = c.sinkMatrix.get(level);
+        if(sinks==null){ return; }
+        publish(c, sinks, level, record, 1);
     }
 
     /**
-     * Calculates timestamp, applies current format and provide it as string
+     * Prints encoded record to given sinks
      *
-     * @return string with timestamp
-     */
-    private static String getTimeStamp(){
-        Date now;
-        String rslt;
-        SimpleDateFormat format;
-        try {
-            format = new SimpleDateFormat(Log.currentTimestampFormat);
-        }catch (Exception e){
-            format = new SimpleDateFormat(Log.defaultTimestampFormat);
+     * @param c configuration snapshot
+     * @param sinks sinks of level
+     * @param level log level
+     * @param record UTF-8 encoded record with line separator, or block of records
+     * @param count number of records in block
+     */
+    private static void publish(LogConfig c, Sink[] sinks, LogLevel level, ByteBuffer record, int count){
+        LogMetrics m = c.metrics;
+        int start = record.position();
+        int end = record.limit();
+        for(Sink sink : sinks){
+            //same bytes for every sink
+            ((Buffer) record).limit(end);
+            ((Buffer) record).position(start);
+            try {
+                sink.write(level, record);
+                if(m!=null){
+                    LogMetrics.SinkCounters counters = m.sink(sink);
+                    counters.records.add(count);
+                    counters.bytes.add(end - start);
+                }
+            } catch (IOException e){
+                //same as PrintStream: logging never throws at caller
+                if(m!=null){
+                    m.sink(sink).errors.increment();
+                }
+            }
         }
+    }
 
-        now = new Date();
-        rslt = format.format(now);
-
-        return rslt;
+    /**
+     * Finds short name of class that called Log method
+     *
+     * @return string contains name of class or NULL in case of error
+     */
+    private static String getCallerClassName() {
+        return CallerResolver.get().callerClassName();
     }
 
     /**
      * Standard actions for tag+message combination
      *
+     * @param c configuration snapshot
      * @param lvl log level
      * @param tag prefix
      * @param message message
      * @return LogObject for inner usage
      */
-    private static LogObject createLogObject(LogLevel lvl, String tag, String message){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String tag, String message){
         if(tag==null || message==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.tag = tag;
         l.message = message;
         return l;
@@ -1136,15 +2800,16 @@ public class Log {
     /**
      * Standard actions for tag+message+exception combination
      *
+     * @param c configuration snapshot
      * @param lvl log level
      * @param tag prefix
      * @param message message
      * @param th exception
      * @return LogObject for inner usage
      */
-    private static LogObject createLogObject(LogLevel lvl, String tag, String message,Throwable th){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String tag, String message,Throwable th){
         if(tag==null || message==null || th==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.tag = tag;
         l.message = message;
         l.th = th;
@@ -1154,14 +2819,15 @@ public class Log {
     /**
      * Standard actions for tag+exception combination
      *
+     * @param c configuration snapshot
      * @param lvl log level
      * @param tag tag aka prefix
      * @param th exception
      * @return LogObject for inner usage
      */
-    private static LogObject createLogObject(LogLevel lvl, String tag, Throwable th){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String tag, Throwable th){
         if(tag==null || th==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.tag = tag;
         l.th = th;
         return l;
@@ -1170,13 +2836,14 @@ public class Log {
     /**
      * Standard actions for message override
      *
+     * @param c configuration snapshot
      * @param lvl log level
      * @param message message
      * @return LogObject for inner usage
      */
-    private static LogObject createLogObject(LogLevel lvl, String message){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String message){
         if(message==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.message = message;
         return l;
     }
@@ -1184,26 +2851,82 @@ public class Log {
     /**
      * Standard actions for exception+message combination
      *
+     * @param c configuration snapshot
      * @param lvl log level
      * @param th exception
      * @return LogObject for inner usage
      */
-    private static LogObject createLogObject(LogLevel lvl, Throwable th){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, Throwable th){
         if(th==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.th = th;
         return l;
     }
 
+    /**
+     * Standard actions for tag+template+arguments combination
+     *
+     * @param c configuration snapshot
+     * @param lvl log level
+     * @param tag prefix
+     * @param template message template with {} placeholders
+     * @param args arguments for placeholders
+     * @return LogObject for inner usage
+     */
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String tag, String template, Object[] args){
+        if(tag==null || template==null){ return null; }
+        LogObject l = createLogObject(c, lvl);
+        l.tag = tag;
+        l.template = MessageTemplate.of(template);
+        l.args = args;
+        return l;
+    }
+
+    /**
+     * Standard actions for tag+lazy message combination
+     *
+     * @param c configuration snapshot
+     * @param lvl log level
+     * @param tag prefix
+     * @param message supplier of message
+     * @return LogObject for inner usage
+     */
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, String tag, Supplier<String> message){
+        if(tag==null){ return null; }
+        LogObject l = createLogObject(c, lvl, message);
+        if(l!=null){
+            l.tag = tag;
+        }
+        return l;
+    }
+
+    /**
+     * Standard actions for lazy message
+     *
+     * @param c configuration snapshot
+     * @param lvl log level
+     * @param message supplier of message
+     * @return LogObject for inner usage
+     */
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, Supplier<String> message){
+        if(message==null){ return null; }
+        String text = message.get();
+        if(text==null){ return null; }
+        LogObject l = createLogObject(c, lvl);
+        l.message = text;
+        return l;
+    }
+
     /**
      * Standard actions for object
+     * @param c configuration snapshot
      * @param lvl log level
      * @param o any object
      * @return LogObject for internal use
      */
-    private static LogObject createLogObject(LogLevel lvl, Object o){
+    private static LogObject createLogObject(LogConfig c, LogLevel lvl, Object o){
         if(o==null){ return null; }
-        LogObject l = createLogObject(lvl);
+        LogObject l = createLogObject(c, lvl);
         l.message = o.toString();
         return l;
     }
@@ -1211,73 +2934,119 @@ public class Log {
     /**
      * Creates new instance of Log Object with given LogLevel
      *
-     * @param l given log level (color and letter depends on it)
+     * @param c configuration snapshot record is logged with
+     * @param l given log level
      * @return LogObject for internal use
      */
-    private static LogObject createLogObject(LogLevel l){
-        return new LogObject(l);
-    }
-
-    /**
-     * Populate matrices with defaults
-     */
-    private static void populateMatrix(){
-        colorMatrix = new HashMap<LogLevel, String>();
-        //defaults
-        colorMatrix.put(LogLevel.ERROR, Color.RED);
-        colorMatrix.put(LogLevel.WARN, Color.YELLOW);
-        colorMatrix.put(LogLevel.INFO, Color.GREEN);
-        colorMatrix.put(LogLevel.DEBUG, Color.BLUE);
-        colorMatrix.put(LogLevel.TRACE, Color.CYAN);
-
-        letterMatrix = new HashMap<LogLevel, String>();
-        letterMatrix.put(LogLevel.ERROR, "E");
-        letterMatrix.put(LogLevel.WARN, "W");
-        letterMatrix.put(LogLevel.INFO, "I");
-        letterMatrix.put(LogLevel.DEBUG, "D");
-        letterMatrix.put(LogLevel.TRACE, "T");
-
-        streamMatrix = new HashMap<LogLevel, PrintStream>();
-        streamMatrix.put(LogLevel.ERROR, System.err);
-        streamMatrix.put(LogLevel.WARN, System.err);
-        streamMatrix.put(LogLevel.INFO, System.out);
-        streamMatrix.put(LogLevel.DEBUG, System.out);
-        streamMatrix.put(LogLevel.TRACE, System.out);
+    private static LogObject createLogObject(LogConfig c, LogLevel l){
+        LogObject logObject;
+        if(c.isGarbageFree){
+            logObject = LogObjectPool.acquire(l, asyncWriter!=null);
+        } else {
+            logObject = new LogObject(l);
+        }
+        logObject.config = c;
+        logObject.timestamp = Clock.now();
+        if(c.layout.needsClassName()){
+            //stack belongs to caller thread, so resolve it here and not at writer thread
+            logObject.className = getCallerClassName();
+        } else if(c.limits!=null){
+            //caller kept by call site limit is not needed
+            CallerResolver.forgetCallSite();
+        }
+        if(c.layout.needsThreadName()){
+            logObject.threadName = Thread.currentThread().getName();
+        }
+        if(c.layout.needsContext()){
+            //context is immutable, so reference is enough
+            logObject.context = LogContext.current();
+        }
+        return logObject;
     }
 
     /**
      * Backdoor for tests. Not indented for normal programming.
      */
     public static void reset(){
-        currentLogLevel = defaultLogLevel;
-        currentTimestampFormat = defaultTimestampFormat;
-        isLetterEnabled = true;
-        isTimeEnabled = true;
-        isClassNameEnabled = true;
-        isTagEnabled = true;
-        populateMatrix();
+        disableAsync();
+        disableRepeatSuppression();
+        disableBinaryLog();
+        disableGroupCommit();
+        disableMetrics();
+        disableFlightRecorder();
+        LogLimits.stopReporter();
+        Clock.precise();
+        flush();
+        synchronized (configLock){
+            config = LogConfig.defaults();
+            LevelSwitch.update(config);
+        }
     }
 
     /**
      * Holds values needed to build log string
      */
-    private static class LogObject{
+    static class LogObject{
         public LogLevel level;
-        public String color;
-        public String letter;
+        public boolean wtf;
 
         public String tag;
         public String message;
         public Throwable th;
 
-        private LogObject(LogLevel level){
+        public MessageTemplate template;
+        public Object[] args;
+
+        public long timestamp;
+        public String className;
+        public String threadName;
+        /**
+         * Diagnostic context of caller thread, immutable, NULL if thread has none or layout doesn't print it
+         */
+        public LogContext context;
+        /**
+         * When object was put to async queue (nanos), 0 if it was not or metrics are disabled
+         */
+        public long queuedAt;
+
+        public LogConfig config;
+
+        /**
+         * Pool this object belongs to, see {@link LogObjectPool}
+         */
+        byte pool = LogObjectPool.NONE;
+        volatile boolean inUse;
+        /**
+         * Array for frozen arguments, kept by pooled object between records, see Log.dispatch()
+         */
+        Object[] argsCopy;
+
+        /**
+         * Records printed together as one block, see {@link #beginScope()}. NULL for single record.
+         */
+        List<LogObject> batch;
+
+        LogObject(LogLevel level){
             this.level = level;
-            if(colorMatrix.containsKey(level)){
-                this.color = colorMatrix.get(level);
-            }
-            if(letterMatrix.containsKey(level)){
-                this.letter = letterMatrix.get(level);
-            }
+        }
+
+        /**
+         * Copies record fields of other object. Pool, config and queue fields stay as they are.
+         *
+         * @param other log object to copy
+         */
+        void copyFrom(LogObject other){
+            this.level = other.level;
+            this.wtf = other.wtf;
+            this.tag = other.tag;
+            this.message = other.message;
+            this.th = other.th;
+            this.template = other.template;
+            this.args = other.args;
+            this.timestamp = other.timestamp;
+            this.className = other.className;
+            this.threadName = other.threadName;
+            this.context = other.context;
         }
     }
 }
@@ -0,0 +1,221 @@
+package net.virtalab.logger;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of {@link Log} configuration.
+ * <br>
+ * Snapshot is never changed after it was published: every reconfiguration copies current snapshot,
+ * changes the copy and publishes it through single volatile reference.
+ * So every record sees one consistent configuration without any lock.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogConfig {
+    //log level
+    LogLevel level;
+    //levels of tags, empty if global level is used for all tags
+    Map<String, LogLevel> tagLevelMatrix;
+
+    //time format
+    String timestampFormat;
+    TimestampFormatter timestampFormatter;
+
+    //message format settings
+    boolean isLetterEnabled;
+    boolean isTimeEnabled;
+    boolean isClassNameEnabled;
+    boolean isTagEnabled;
+
+    //reuse of objects and buffers
+    boolean isGarbageFree;
+
+    //remembers printed stacktraces, null means every trace is printed in full
+    StackTraceRenderer stackTraceRenderer;
+
+    //limits of records, null means no limits
+    LogLimits limits;
+
+    //collapses repeated records, null means every record is printed
+    RepeatFilter repeatFilter;
+
+    //binary log, null means records are formatted as text
+    BinaryLog binaryLog;
+
+    //flushing of sinks, null means sinks flush themselves
+    GroupCommit groupCommit;
+
+    //counters and durations, null means nothing is measured
+    LogMetrics metrics;
+
+    //keeps records below log level, null means they are dropped
+    FlightRecorder recorder;
+
+    //layout
+    String layoutPattern;
+    boolean isJson;
+
+    //matrix 1,2,3
+    Map<LogLevel, String> colorMatrix;
+    Map<LogLevel, String> letterMatrix;
+    Map<LogLevel, Sink[]> sinkMatrix;
+
+    //derived from fields above by prepare()
+    Layout layout;
+    Sink[] sinks;
+    TagLevels tagLevels;
+
+    private LogConfig(){
+    }
+
+    /**
+     * Creates configuration with defaults
+     *
+     * @return default configuration
+     */
+    static LogConfig defaults(){
+        LogConfig c = new LogConfig();
+        c.level = Log.defaultLogLevel;
+        c.tagLevelMatrix = new HashMap<String, LogLevel>();
+        c.timestampFormat = Log.defaultTimestampFormat;
+        c.timestampFormatter = new TimestampFormatter(Log.defaultTimestampFormat);
+        c.isLetterEnabled = true;
+        c.isTimeEnabled = true;
+        c.isClassNameEnabled = true;
+        c.isTagEnabled = true;
+
+        c.colorMatrix = new EnumMap<LogLevel, String>(LogLevel.class);
+        c.colorMatrix.put(LogLevel.ERROR, Color.RED);
+        c.colorMatrix.put(LogLevel.WARN, Color.YELLOW);
+        c.colorMatrix.put(LogLevel.INFO, Color.GREEN);
+        c.colorMatrix.put(LogLevel.DEBUG, Color.BLUE);
+        c.colorMatrix.put(LogLevel.TRACE, Color.CYAN);
+
+        c.letterMatrix = new EnumMap<LogLevel, String>(LogLevel.class);
+        c.letterMatrix.put(LogLevel.ERROR, "E");
+        c.letterMatrix.put(LogLevel.WARN, "W");
+        c.letterMatrix.put(LogLevel.INFO, "I");
+        c.letterMatrix.put(LogLevel.DEBUG, "D");
+        c.letterMatrix.put(LogLevel.TRACE, "T");
+
+        Sink[] err = { new PrintStreamSink(System.err) };
+        Sink[] out = { new PrintStreamSink(System.out) };
+        c.sinkMatrix = new EnumMap<LogLevel, Sink[]>(LogLevel.class);
+        c.sinkMatrix.put(LogLevel.ERROR, err);
+        c.sinkMatrix.put(LogLevel.WARN, err);
+        c.sinkMatrix.put(LogLevel.INFO, out);
+        c.sinkMatrix.put(LogLevel.DEBUG, out);
+        c.sinkMatrix.put(LogLevel.TRACE, out);
+
+        c.layoutPattern = Log.defaultLayout;
+        c.prepare();
+        return c;
+    }
+
+    /**
+     * Compiles layout, collects distinct sinks and shares sink arrays for current state of this configuration.
+     * Must be called after every change, before publishing.
+     */
+    void prepare(){
+        this.layout = isJson ? new JsonLayout(this) : PatternLayout.compile(layoutPattern, this);
+        Set<Sink> distinct = new LinkedHashSet<Sink>();
+        //levels with same sinks share same array, so array identity says "same sinks"
+        Map<List<Sink>, Sink[]> canonical = new HashMap<List<Sink>, Sink[]>();
+        for(Map.Entry<LogLevel, Sink[]> e : sinkMatrix.entrySet()){
+            List<Sink> key = Arrays.asList(e.getValue());
+            Sink[] shared = canonical.get(key);
+            if(shared==null){
+                canonical.put(key, e.getValue());
+            } else {
+                e.setValue(shared);
+            }
+            distinct.addAll(key);
+        }
+        this.sinks = distinct.toArray(new Sink[distinct.size()]);
+        this.tagLevels = tagLevelMatrix.isEmpty() ? null : new TagLevels(tagLevelMatrix, level);
+    }
+
+    /**
+     * Provides priority of level, which applies to tag.
+     * Without tag levels it is just global level.
+     *
+     * @param tag tag of record, may be null
+     * @return priority to compare with priority of record level
+     */
+    int priorityOf(String tag){
+        TagLevels t = tagLevels;
+        if(t==null){
+            return level.priority;
+        }
+        return t.priorityOf(tag);
+    }
+
+    /**
+     * Checks whether record, which is below log level, should be kept by flight recorder
+     *
+     * @param tag tag of record, may be null
+     * @param level log level of record
+     * @return true if record should be recorded
+     */
+    boolean records(String tag, LogLevel level){
+        return recorder!=null && priorityOf(tag) < level.priority;
+    }
+
+    /**
+     * Checks limits of record. Without limits it is just null check.
+     *
+     * @param tag tag of record, may be null
+     * @param level log level of record
+     * @return true if record may be printed
+     */
+    boolean permits(String tag, LogLevel level){
+        LogLimits l = limits;
+        if(l==null || l.permit(tag, level)){
+            return true;
+        }
+        LogMetrics m = metrics;
+        if(m!=null){
+            m.limited(level);
+        }
+        return false;
+    }
+
+    /**
+     * Makes copy, which can be changed before publishing. Matrices are copied as well.
+     *
+     * @return unpublished copy of this configuration
+     */
+    LogConfig copy(){
+        LogConfig c = new LogConfig();
+        c.level = this.level;
+        c.tagLevelMatrix = new HashMap<String, LogLevel>(this.tagLevelMatrix);
+        c.timestampFormat = this.timestampFormat;
+        c.timestampFormatter = this.timestampFormatter;
+        c.isLetterEnabled = this.isLetterEnabled;
+        c.isTimeEnabled = this.isTimeEnabled;
+        c.isClassNameEnabled = this.isClassNameEnabled;
+        c.isTagEnabled = this.isTagEnabled;
+        c.isGarbageFree = this.isGarbageFree;
+        c.groupCommit = this.groupCommit;
+        c.metrics = this.metrics;
+        c.recorder = this.recorder;
+        c.binaryLog = this.binaryLog;
+        c.repeatFilter = this.repeatFilter;
+        c.limits = this.limits;
+        c.stackTraceRenderer = this.stackTraceRenderer;
+        c.layoutPattern = this.layoutPattern;
+        c.isJson = this.isJson;
+        c.colorMatrix = new EnumMap<LogLevel, String>(this.colorMatrix);
+        c.letterMatrix = new EnumMap<LogLevel, String>(this.letterMatrix);
+        //arrays are never changed, only replaced
+        c.sinkMatrix = new EnumMap<LogLevel, Sink[]>(this.sinkMatrix);
+        return c;
+    }
+}
@@ -0,0 +1,149 @@
+package net.virtalab.logger;
+
+import java.util.Arrays;
+
+/**
+ * Diagnostic context of thread (aka MDC): few key-value pairs like request id or user id,
+ * which are printed with every record of thread. See {@link Log#putContext(String, String)}.
+ * <br>
+ * Context is immutable pair of arrays, every change makes new one (copy on write).
+ * So record takes reference to current context instead of copying it, also in async mode.
+ * Contexts are small, so linear search is faster than any map.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogContext {
+    static final LogContext EMPTY = new LogContext(new String[0], new String[0]);
+
+    private static final ThreadLocal<LogContext> local = new ThreadLocal<LogContext>();
+
+    private final String[] keys;
+    private final String[] values;
+
+    private LogContext(String[] keys, String[] values){
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Provides context of current thread
+     *
+     * @return context, NULL if thread has none
+     */
+    static LogContext current(){
+        return local.get();
+    }
+
+    /**
+     * Sets value of key in context of current thread
+     *
+     * @param key key
+     * @param value value
+     */
+    static void put(String key, String value){
+        LogContext c = local.get();
+        local.set((c==null ? EMPTY : c).with(key, value));
+    }
+
+    /**
+     * Removes key from context of current thread
+     *
+     * @param key key
+     */
+    static void remove(String key){
+        LogContext c = local.get();
+        if(c==null){ return; }
+        c = c.without(key);
+        if(c.isEmpty()){
+            local.remove();
+        } else {
+            local.set(c);
+        }
+    }
+
+    /**
+     * Removes context of current thread
+     */
+    static void clear(){
+        local.remove();
+    }
+
+    /**
+     * Provides value of key
+     *
+     * @param key key
+     * @return value or NULL
+     */
+    String get(String key){
+        int idx = indexOf(key);
+        return idx<0 ? null : values[idx];
+    }
+
+    boolean isEmpty(){
+        return keys.length==0;
+    }
+
+    int size(){
+        return keys.length;
+    }
+
+    String keyAt(int idx){
+        return keys[idx];
+    }
+
+    String valueAt(int idx){
+        return values[idx];
+    }
+
+    /**
+     * Appends pairs as "key=value key2=value2"
+     *
+     * @param sb builder to append to
+     */
+    void appendTo(StringBuilder sb){
+        for(int i=0;i<keys.length;i++){
+            if(i>0){
+                sb.append(' ');
+            }
+            sb.append(keys[i]).append('=').append(values[i]);
+        }
+    }
+
+    private LogContext with(String key, String value){
+        int idx = indexOf(key);
+        if(idx>=0){
+            if(values[idx].equals(value)){ return this; }
+            String[] newValues = values.clone();
+            newValues[idx] = value;
+            return new LogContext(keys, newValues);
+        }
+        String[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+        String[] newValues = Arrays.copyOf(values, values.length + 1);
+        newKeys[keys.length] = key;
+        newValues[values.length] = value;
+        return new LogContext(newKeys, newValues);
+    }
+
+    private LogContext without(String key){
+        int idx = indexOf(key);
+        if(idx<0){ return this; }
+        if(keys.length==1){ return EMPTY; }
+        String[] newKeys = new String[keys.length - 1];
+        String[] newValues = new String[values.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, idx);
+        System.arraycopy(values, 0, newValues, 0, idx);
+        System.arraycopy(keys, idx + 1, newKeys, idx, keys.length - idx - 1);
+        System.arraycopy(values, idx + 1, newValues, idx, values.length - idx - 1);
+        return new LogContext(newKeys, newValues);
+    }
+
+    private int indexOf(String key){
+        for(int i=0;i<keys.length;i++){
+            if(keys[i].equals(key)){
+                return i;
+            }
+        }
+        return -1;
+    }
+}
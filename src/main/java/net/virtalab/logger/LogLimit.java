@@ -0,0 +1,84 @@
+package net.virtalab.logger;
+
+/**
+ * Limit of records: token bucket (N records per second with burst) or sampling (1 of N records).
+ * Set by {@link Log#limitTag(String, LogLimit)}, {@link Log#limitLevel(LogLevel, LogLimit)}
+ * or {@link Log#limitCallSites(LogLimit)}.
+ * <br>
+ * Records above limit are dropped before anything is allocated for them. Their number is reported periodically.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public final class LogLimit {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final int rate;
+    private final int burst;
+    private final int sampling;
+
+    private LogLimit(int rate, int burst, int sampling){
+        this.rate = rate;
+        this.burst = burst;
+        this.sampling = sampling;
+    }
+
+    /**
+     * Creates limit, which allows given number of records per second. Same number may come as single burst.
+     *
+     * @param records records per second
+     * @return limit
+     */
+    public static LogLimit perSecond(int records){
+        return perSecond(records, records);
+    }
+
+    /**
+     * Creates limit, which allows given number of records per second on average
+     *
+     * @param records records per second
+     * @param burst max number of records coming at once
+     * @return limit
+     */
+    public static LogLimit perSecond(int records, int burst){
+        if(records<=0 || burst<=0){
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        return new LogLimit(records, burst, 0);
+    }
+
+    /**
+     * Creates limit, which allows every n-th record: first, (n+1)-th and so on
+     *
+     * @param n one of how many records is printed
+     * @return limit
+     */
+    public static LogLimit sample(int n){
+        if(n<=0){
+            throw new IllegalArgumentException("Sampling must be positive");
+        }
+        return new LogLimit(0, 0, n);
+    }
+
+    /**
+     * Creates state of this limit for single tag, level or call site
+     *
+     * @param name what is limited, used in reports
+     * @return new limiter
+     */
+    Limiter newLimiter(String name){
+        if(sampling>0){
+            return new Limiter.Sampling(name, this, sampling);
+        }
+        long interval = NANOS_PER_SECOND / rate;
+        return new Limiter.TokenBucket(name, this, interval, interval * burst);
+    }
+
+    @Override
+    public String toString(){
+        if(sampling>0){
+            return "1 of " + sampling;
+        }
+        return rate + "/s";
+    }
+}
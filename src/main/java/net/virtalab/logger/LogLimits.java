@@ -0,0 +1,200 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits of records by tag, by level and by call site. Part of configuration snapshot.
+ * <br>
+ * Limits themselves are never changed, reconfiguration builds new object, which keeps limiters of unchanged limits,
+ * so their state survives. Check is done before record object is created, it costs nothing for calls without limit,
+ * but limit by call site has to walk stack for every call. Found caller is kept for record, so it is walked once.
+ * <br>
+ * Background thread reports suppressed records every {@link #REPORT_INTERVAL_MILLIS}.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogLimits {
+    static final long REPORT_INTERVAL_MILLIS = 10000;
+    static final String REPORTER_THREAD_NAME = "virtalab-logger-limits";
+
+    /**
+     * Max number of call sites with own limiter. Call sites above it are not limited.
+     */
+    private static final int MAX_CALL_SITES = 4096;
+
+    private static Thread reporter;
+
+    private final Map<String, Limiter> tags;
+    private final Map<LogLevel, Limiter> levels;
+    private final Limiter[] levelsByOrdinal;
+    private final LogLimit callSiteLimit;
+    private final ConcurrentMap<CallerResolver.CallSite, Limiter> callSites;
+
+    private LogLimits(Map<String, Limiter> tags, Map<LogLevel, Limiter> levels,
+                      LogLimit callSiteLimit, ConcurrentMap<CallerResolver.CallSite, Limiter> callSites){
+        this.tags = tags;
+        this.levels = levels;
+        this.levelsByOrdinal = new Limiter[LogLevel.values().length];
+        for(Map.Entry<LogLevel, Limiter> e : levels.entrySet()){
+            levelsByOrdinal[e.getKey().ordinal()] = e.getValue();
+        }
+        this.callSiteLimit = callSiteLimit;
+        this.callSites = callSites;
+    }
+
+    /**
+     * Creates limits with given one only. Other are taken from previous limits.
+     *
+     * @param previous current limits, may be null
+     * @return new limits or null if there are no limits at all
+     */
+    static LogLimits withTag(LogLimits previous, String tag, LogLimit limit){
+        LogLimits p = previous==null ? empty() : previous;
+        Map<String, Limiter> tags = new HashMap<String, Limiter>(p.tags);
+        if(limit==null){
+            tags.remove(tag);
+        } else {
+            tags.put(tag, limit.newLimiter("tag " + tag));
+        }
+        return of(tags, p.levels, p.callSiteLimit, p.callSites);
+    }
+
+    static LogLimits withLevel(LogLimits previous, LogLevel level, LogLimit limit){
+        LogLimits p = previous==null ? empty() : previous;
+        Map<LogLevel, Limiter> levels = new EnumMap<LogLevel, Limiter>(LogLevel.class);
+        levels.putAll(p.levels);
+        if(limit==null){
+            levels.remove(level);
+        } else {
+            levels.put(level, limit.newLimiter("level " + level));
+        }
+        return of(p.tags, levels, p.callSiteLimit, p.callSites);
+    }
+
+    static LogLimits withCallSites(LogLimits previous, LogLimit limit){
+        LogLimits p = previous==null ? empty() : previous;
+        return of(p.tags, p.levels, limit, new ConcurrentHashMap<CallerResolver.CallSite, Limiter>());
+    }
+
+    private static LogLimits empty(){
+        return new LogLimits(new HashMap<String, Limiter>(), new EnumMap<LogLevel, Limiter>(LogLevel.class),
+                null, new ConcurrentHashMap<CallerResolver.CallSite, Limiter>());
+    }
+
+    private static LogLimits of(Map<String, Limiter> tags, Map<LogLevel, Limiter> levels,
+                                LogLimit callSiteLimit, ConcurrentMap<CallerResolver.CallSite, Limiter> callSites){
+        if(tags.isEmpty() && levels.isEmpty() && callSiteLimit==null){
+            return null;
+        }
+        return new LogLimits(tags, levels, callSiteLimit, callSites);
+    }
+
+    /**
+     * Checks if record fits all its limits
+     *
+     * @param tag tag of record, may be null
+     * @param level log level of record
+     * @return true if record may be printed
+     */
+    boolean permit(String tag, LogLevel level){
+        Limiter t = tag==null || tags.isEmpty() ? null : tags.get(tag);
+        Limiter l = levelsByOrdinal[level.ordinal()];
+        //token is taken only when every limit allows record: if later limit drops record, earlier tokens are given back
+        if(t!=null && !t.tryPermit()){
+            t.suppress();
+            return false;
+        }
+        if(l!=null && !l.tryPermit()){
+            l.suppress();
+            refund(t);
+            return false;
+        }
+        if(callSiteLimit!=null){
+            Limiter s = callSiteLimiter();
+            if(s!=null && !s.tryPermit()){
+                s.suppress();
+                refund(t);
+                refund(l);
+                //no record is created, so caller must not be taken by next one
+                CallerResolver.forgetCallSite();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void refund(Limiter limiter){
+        if(limiter!=null){
+            limiter.refund();
+        }
+    }
+
+    /**
+     * Finds limiter of call site. Call site stays resolved for record, so its caller class is not searched again.
+     */
+    private Limiter callSiteLimiter(){
+        CallerResolver.CallSite site = CallerResolver.get().resolveCallSite();
+        if(site==null){ return null; }
+        Limiter s = callSites.get(site);
+        if(s==null && callSites.size() < MAX_CALL_SITES){
+            CallerResolver.CallSite key = site.copy();
+            Limiter created = callSiteLimit.newLimiter("call site " + key);
+            created.className = key.shortClassName();
+            s = callSites.putIfAbsent(key, created);
+            if(s==null){
+                s = created;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Provides all limiters to report
+     *
+     * @return limiters of tags, levels and call sites
+     */
+    List<Limiter> limiters(){
+        List<Limiter> all = new ArrayList<Limiter>(tags.values());
+        all.addAll(levels.values());
+        all.addAll(callSites.values());
+        return all;
+    }
+
+    /**
+     * Starts thread, which reports suppressed records, if it is not running yet
+     */
+    static synchronized void startReporter(){
+        if(reporter!=null){ return; }
+        reporter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while(!Thread.currentThread().isInterrupted()){
+                    try {
+                        Thread.sleep(REPORT_INTERVAL_MILLIS);
+                    } catch (InterruptedException e){
+                        return;
+                    }
+                    Log.reportSuppressed();
+                }
+            }
+        }, REPORTER_THREAD_NAME);
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    /**
+     * Stops reporting thread
+     */
+    static synchronized void stopReporter(){
+        if(reporter==null){ return; }
+        reporter.interrupt();
+        reporter = null;
+    }
+}
@@ -0,0 +1,252 @@
+package net.virtalab.logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and durations of logger itself. Enabled by {@link Log#enableMetrics()}.
+ * <br>
+ * All counters are {@link LongAdder}s and histograms are built of them, so recording takes no lock
+ * and threads don't fight for same cache line.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogMetrics implements LogMetricsMXBean {
+    static final String OBJECT_NAME = "net.virtalab.logger:type=Log";
+
+    private final LongAdder[][] levels;
+    private final ConcurrentMap<Sink, SinkCounters> sinks = new ConcurrentHashMap<Sink, SinkCounters>();
+
+    final LatencyHistogram formatTime = new LatencyHistogram();
+    final LatencyHistogram writeTime = new LatencyHistogram();
+    final LatencyHistogram queueWait = new LatencyHistogram();
+
+    LogMetrics(){
+        LogLevel[] all = LogLevel.values();
+        levels = new LongAdder[all.length][4];
+        for(LongAdder[] counters : levels){
+            for(int i=0;i<counters.length;i++){
+                counters[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Records printed record
+     *
+     * @param level log level
+     * @param bytes encoded size
+     * @param formatNanos time of layout and encoding
+     * @param writeNanos time of writing to sinks
+     */
+    void recorded(LogLevel level, int bytes, long formatNanos, long writeNanos){
+        LongAdder[] counters = levels[level.ordinal()];
+        counters[LogStats.RECORDS].increment();
+        counters[LogStats.BYTES].add(bytes);
+        formatTime.record(formatNanos);
+        writeTime.record(writeNanos);
+    }
+
+    /**
+     * Records record, which has no format and write time of its own (binary log). Histograms are not touched.
+     *
+     * @param level log level
+     * @param bytes encoded size
+     */
+    void recorded(LogLevel level, int bytes){
+        LongAdder[] counters = levels[level.ordinal()];
+        counters[LogStats.RECORDS].increment();
+        counters[LogStats.BYTES].add(bytes);
+    }
+
+    void limited(LogLevel level){
+        levels[level.ordinal()][LogStats.LIMITED].increment();
+    }
+
+    void repeated(LogLevel level){
+        levels[level.ordinal()][LogStats.REPEATED].increment();
+    }
+
+    /**
+     * Provides counters of sink
+     *
+     * @param sink sink
+     * @return counters, created at first use
+     */
+    SinkCounters sink(Sink sink){
+        SinkCounters counters = sinks.get(sink);
+        if(counters==null){
+            SinkCounters created = new SinkCounters();
+            counters = sinks.putIfAbsent(sink, created);
+            if(counters==null){
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Makes snapshot
+     *
+     * @param queueDepth current depth of async queue
+     * @return snapshot
+     */
+    LogStats snapshot(int queueDepth){
+        Map<LogLevel, long[]> levelCounters = new EnumMap<LogLevel, long[]>(LogLevel.class);
+        for(LogLevel level : LogLevel.values()){
+            LongAdder[] counters = levels[level.ordinal()];
+            long[] values = new long[counters.length];
+            for(int i=0;i<counters.length;i++){
+                values[i] = counters[i].sum();
+            }
+            levelCounters.put(level, values);
+        }
+        List<LogStats.SinkStats> sinkStats = new ArrayList<LogStats.SinkStats>();
+        for(Map.Entry<Sink, SinkCounters> e : sinks.entrySet()){
+            SinkCounters c = e.getValue();
+            sinkStats.add(new LogStats.SinkStats(e.getKey(), c.records.sum(), c.bytes.sum(), c.errors.sum()));
+        }
+        return new LogStats(levelCounters, sinkStats, formatTime.snapshot(), writeTime.snapshot(), queueWait.snapshot(), queueDepth);
+    }
+
+    /**
+     * Registers this object at platform MBean server, replacing one registered before
+     */
+    void register(){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(server.isRegistered(name)){
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e){
+            //metrics stay available through Log.getStats()
+        }
+    }
+
+    /**
+     * Removes this object from platform MBean server
+     */
+    void unregister(){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(server.isRegistered(name)){
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e){
+            //nothing to do
+        }
+    }
+
+    @Override
+    public Map<String, Long> getRecords(){
+        return byLevel(LogStats.RECORDS);
+    }
+
+    @Override
+    public Map<String, Long> getBytes(){
+        return byLevel(LogStats.BYTES);
+    }
+
+    @Override
+    public Map<String, Long> getLimited(){
+        return byLevel(LogStats.LIMITED);
+    }
+
+    @Override
+    public Map<String, Long> getRepeated(){
+        return byLevel(LogStats.REPEATED);
+    }
+
+    @Override
+    public Map<String, Long> getSinkRecords(){
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for(Map.Entry<Sink, SinkCounters> e : sinks.entrySet()){
+            result.put(String.valueOf(e.getKey()), e.getValue().records.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getSinkBytes(){
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for(Map.Entry<Sink, SinkCounters> e : sinks.entrySet()){
+            result.put(String.valueOf(e.getKey()), e.getValue().bytes.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getSinkErrors(){
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for(Map.Entry<Sink, SinkCounters> e : sinks.entrySet()){
+            result.put(String.valueOf(e.getKey()), e.getValue().errors.sum());
+        }
+        return result;
+    }
+
+    @Override
+    public long getFormatTimeMedianNanos(){
+        return formatTime.snapshot().getPercentileNanos(50);
+    }
+
+    @Override
+    public long getFormatTimeP99Nanos(){
+        return formatTime.snapshot().getPercentileNanos(99);
+    }
+
+    @Override
+    public long getWriteTimeMedianNanos(){
+        return writeTime.snapshot().getPercentileNanos(50);
+    }
+
+    @Override
+    public long getWriteTimeP99Nanos(){
+        return writeTime.snapshot().getPercentileNanos(99);
+    }
+
+    @Override
+    public long getQueueWaitMedianNanos(){
+        return queueWait.snapshot().getPercentileNanos(50);
+    }
+
+    @Override
+    public long getQueueWaitP99Nanos(){
+        return queueWait.snapshot().getPercentileNanos(99);
+    }
+
+    @Override
+    public int getQueueDepth(){
+        return Log.getQueueDepth();
+    }
+
+    private Map<String, Long> byLevel(int idx){
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        for(LogLevel level : LogLevel.values()){
+            result.put(level.name(), levels[level.ordinal()][idx].sum());
+        }
+        return result;
+    }
+
+    /**
+     * Counters of single sink
+     */
+    static final class SinkCounters {
+        final LongAdder records = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
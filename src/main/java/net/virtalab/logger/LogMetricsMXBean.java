@@ -0,0 +1,40 @@
+package net.virtalab.logger;
+
+import java.util.Map;
+
+/**
+ * JMX view of logger metrics. Registered as {@link LogMetrics#OBJECT_NAME} by {@link Log#enableMetrics()}.
+ * Counters are keyed by level name or by sink name, durations are in nanos.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public interface LogMetricsMXBean {
+    Map<String, Long> getRecords();
+
+    Map<String, Long> getBytes();
+
+    Map<String, Long> getLimited();
+
+    Map<String, Long> getRepeated();
+
+    Map<String, Long> getSinkRecords();
+
+    Map<String, Long> getSinkBytes();
+
+    Map<String, Long> getSinkErrors();
+
+    long getFormatTimeMedianNanos();
+
+    long getFormatTimeP99Nanos();
+
+    long getWriteTimeMedianNanos();
+
+    long getWriteTimeP99Nanos();
+
+    long getQueueWaitMedianNanos();
+
+    long getQueueWaitP99Nanos();
+
+    int getQueueDepth();
+}
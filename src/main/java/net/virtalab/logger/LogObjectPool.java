@@ -0,0 +1,100 @@
+package net.virtalab.logger;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reuses log objects in garbage-free mode.
+ * <br>
+ * In sync mode every thread reuses its own log object, because record is published before method returns.
+ * In async mode objects travel to writer thread, so they are taken from shared pool and returned there after writing.
+ * Pools never block: when no free object is there, new one is created.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogObjectPool {
+    /**
+     * Object is not pooled: created for single record
+     */
+    static final byte NONE = 0;
+    /**
+     * Object belongs to thread, which created it
+     */
+    static final byte LOCAL = 1;
+    /**
+     * Object belongs to shared pool
+     */
+    static final byte SHARED = 2;
+
+    /**
+     * Max number of free objects kept in shared pool
+     */
+    private static final int SHARED_POOL_SIZE = 1024;
+
+    private static final ThreadLocal<Log.LogObject> local = new ThreadLocal<Log.LogObject>();
+    private static final BlockingQueue<Log.LogObject> shared = new ArrayBlockingQueue<Log.LogObject>(SHARED_POOL_SIZE);
+
+    private LogObjectPool(){
+    }
+
+    /**
+     * Provides free log object
+     *
+     * @param level log level
+     * @param async true if object is going to be queued for writer thread
+     * @return log object ready to be filled
+     */
+    static Log.LogObject acquire(LogLevel level, boolean async){
+        Log.LogObject l;
+        if(async){
+            l = shared.poll();
+            if(l==null){
+                l = new Log.LogObject(level);
+                l.pool = SHARED;
+            }
+        } else {
+            l = local.get();
+            if(l==null){
+                l = new Log.LogObject(level);
+                l.pool = LOCAL;
+                local.set(l);
+            } else if(l.inUse){
+                //logging from toString() of argument, while own object is still being formatted
+                l = new Log.LogObject(level);
+            }
+        }
+        l.level = level;
+        l.inUse = true;
+        return l;
+    }
+
+    /**
+     * Returns log object to its pool. Does nothing for objects, which are not pooled.
+     *
+     * @param l published log object
+     */
+    static void release(Log.LogObject l){
+        if(l.pool==NONE){ return; }
+        l.wtf = false;
+        l.tag = null;
+        l.message = null;
+        l.th = null;
+        l.template = null;
+        l.args = null;
+        if(l.argsCopy!=null){
+            //don't keep arguments of published record alive
+            Arrays.fill(l.argsCopy, null);
+        }
+        l.className = null;
+        l.threadName = null;
+        l.context = null;
+        l.queuedAt = 0;
+        l.config = null;
+        l.inUse = false;
+        if(l.pool==SHARED){
+            shared.offer(l);
+        }
+    }
+}
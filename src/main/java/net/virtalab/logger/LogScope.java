@@ -0,0 +1,106 @@
+package net.virtalab.logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records of thread between {@link Log#beginScope()} and {@link Log#endScope(boolean)}.
+ * They are held back and printed together only if scope fails.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class LogScope {
+    private static final ThreadLocal<LogScope> current = new ThreadLocal<LogScope>();
+    /**
+     * Number of threads in scope, so that threads without scope don't touch thread local
+     */
+    private static final AtomicInteger open = new AtomicInteger();
+
+    private final int capacity;
+    private final ArrayDeque<Log.LogObject> records = new ArrayDeque<Log.LogObject>();
+    private int depth = 1;
+    private boolean failed;
+
+    private LogScope(int capacity){
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens scope for current thread. Nested scope is part of outer one.
+     *
+     * @param capacity max number of records held back
+     */
+    static void begin(int capacity){
+        LogScope scope = current.get();
+        if(scope!=null){
+            scope.depth++;
+            return;
+        }
+        current.set(new LogScope(capacity));
+        open.incrementAndGet();
+    }
+
+    /**
+     * Closes scope of current thread
+     *
+     * @param failed true if records of scope must be printed
+     * @return records to print, empty if scope succeeded or is nested, NULL if thread has no scope
+     */
+    static List<Log.LogObject> end(boolean failed){
+        LogScope scope = current.get();
+        if(scope==null){ return null; }
+        scope.failed |= failed;
+        if(--scope.depth > 0){
+            return new ArrayList<Log.LogObject>(0);
+        }
+        current.remove();
+        open.decrementAndGet();
+        if(!scope.failed){
+            return new ArrayList<Log.LogObject>(0);
+        }
+        return scope.take();
+    }
+
+    /**
+     * Provides scope of current thread
+     *
+     * @return scope or NULL
+     */
+    static LogScope current(){
+        if(open.get()==0){ return null; }
+        return current.get();
+    }
+
+    /**
+     * Holds back copy of log object. When scope is full, oldest record is dropped.
+     * ERROR record fails scope.
+     *
+     * @param l log object, which belongs to caller
+     * @return records to print at once, NULL if record is held back
+     */
+    List<Log.LogObject> hold(Log.LogObject l){
+        //arguments may change before record is printed
+        l.args = MessageTemplate.freeze(l.args);
+        if(records.size()==capacity){
+            records.pollFirst();
+        }
+        Log.LogObject copy = new Log.LogObject(l.level);
+        copy.copyFrom(l);
+        records.addLast(copy);
+        if(l.level!=LogLevel.ERROR){
+            return null;
+        }
+        //failed scope prints what it has as soon as error comes, rest goes at end of scope
+        failed = true;
+        return take();
+    }
+
+    private List<Log.LogObject> take(){
+        List<Log.LogObject> batch = new ArrayList<Log.LogObject>(records);
+        records.clear();
+        return batch;
+    }
+}
@@ -0,0 +1,147 @@
+package net.virtalab.logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of logger metrics, provided by {@link Log#getStats()}.
+ * <br>
+ * Counters are totals since metrics were enabled. Durations: format is layout and encoding of record,
+ * write is giving it to all sinks of level, queue wait is time record spent in async queue.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public final class LogStats {
+    private final Map<LogLevel, long[]> levels;
+    private final List<SinkStats> sinks;
+    private final LatencyStats formatTime;
+    private final LatencyStats writeTime;
+    private final LatencyStats queueWait;
+    private final int queueDepth;
+
+    //indexes in level counters
+    static final int RECORDS = 0;
+    static final int BYTES = 1;
+    static final int LIMITED = 2;
+    static final int REPEATED = 3;
+
+    LogStats(Map<LogLevel, long[]> levels, List<SinkStats> sinks,
+             LatencyStats formatTime, LatencyStats writeTime, LatencyStats queueWait, int queueDepth){
+        this.levels = levels;
+        this.sinks = Collections.unmodifiableList(sinks);
+        this.formatTime = formatTime;
+        this.writeTime = writeTime;
+        this.queueWait = queueWait;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Provides number of printed records
+     *
+     * @param level log level
+     * @return number of records
+     */
+    public long getRecords(LogLevel level){
+        return counter(level, RECORDS);
+    }
+
+    /**
+     * Provides number of encoded bytes of printed records (once per record, not per sink)
+     *
+     * @param level log level
+     * @return number of bytes
+     */
+    public long getBytes(LogLevel level){
+        return counter(level, BYTES);
+    }
+
+    /**
+     * Provides number of records dropped by limits, see {@link Log#limitTag(String, LogLimit)}
+     *
+     * @param level log level
+     * @return number of records
+     */
+    public long getLimited(LogLevel level){
+        return counter(level, LIMITED);
+    }
+
+    /**
+     * Provides number of records collapsed by {@link Log#enableRepeatSuppression()}
+     *
+     * @param level log level
+     * @return number of records
+     */
+    public long getRepeated(LogLevel level){
+        return counter(level, REPEATED);
+    }
+
+    public List<SinkStats> getSinks(){
+        return sinks;
+    }
+
+    public LatencyStats getFormatTime(){
+        return formatTime;
+    }
+
+    public LatencyStats getWriteTime(){
+        return writeTime;
+    }
+
+    public LatencyStats getQueueWait(){
+        return queueWait;
+    }
+
+    /**
+     * Provides number of records waiting in async queue at moment of snapshot
+     *
+     * @return queue depth, 0 in sync mode
+     */
+    public int getQueueDepth(){
+        return queueDepth;
+    }
+
+    private long counter(LogLevel level, int idx){
+        long[] counters = levels.get(level);
+        return counters==null ? 0 : counters[idx];
+    }
+
+    /**
+     * Counters of single sink
+     */
+    public static final class SinkStats {
+        private final Sink sink;
+        private final long records;
+        private final long bytes;
+        private final long errors;
+
+        SinkStats(Sink sink, long records, long bytes, long errors){
+            this.sink = sink;
+            this.records = records;
+            this.bytes = bytes;
+            this.errors = errors;
+        }
+
+        public Sink getSink(){
+            return sink;
+        }
+
+        public long getRecords(){
+            return records;
+        }
+
+        public long getBytes(){
+            return bytes;
+        }
+
+        /**
+         * Provides number of records, which sink failed to write, so they are lost for this sink
+         *
+         * @return number of failed records
+         */
+        public long getErrors(){
+            return errors;
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package net.virtalab.logger;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Logger
- *
+ * <br>
+ * There is one Logger per prefix. Its headers are built once, so printing record only appends message.
  */
 public class Logger {
     /**
      * Log prefix. Concept came from android.util.Log class
      */
-    private String prefix;
+    private final String prefix;
+    /**
+     * Encoded headers "[prefix] (LABEL) " by level ordinal
+     */
+    private final byte[][] headers;
+
+    /**
+     * One logger per prefix. Null prefix is kept as empty one.
+     */
+    private static final ConcurrentMap<String, Logger> registry = new ConcurrentHashMap<String, Logger>();
+
+    /**
+     * Sinks of Logger. Streams are taken at moment of writing, so {@link System#setOut(PrintStream)} works as before.
+     */
+    private static final Sink stdOut = new SystemStreamSink(false);
+    private static final Sink stdErr = new SystemStreamSink(true);
+    private static final Charset UTF8 = Charset.forName("UTF-8");
     /**
      * Default log level, used if logger wasn't initialized with some log level
      */
@@ -18,7 +39,7 @@ public class Logger {
     /**
      * Holder for current log level
      */
-    private static LogLevel currentLogLevel = LogLevel.INFO;
+    private static volatile LogLevel currentLogLevel = LogLevel.INFO;
 
     /**
      * Main constructor
@@ -27,6 +48,11 @@ public class Logger {
      */
     private Logger(String prefix){
         this.prefix = prefix;
+        LogLevel[] levels = LogLevel.values();
+        this.headers = new byte[levels.length][];
+        for(LogLevel level : levels){
+            headers[level.ordinal()] = createHeader(level).getBytes(UTF8);
+        }
     }
 
     /**
@@ -49,10 +75,19 @@ public class Logger {
      * Provides Logger object with given prefix
      *
      * @param prefix desirable prefix, if null of empty, it will create Logger without prefix
-     * @return newly created Logger instance
+     * @return Logger instance, same for same prefix
      */
     public static Logger getLogger(String prefix){
-        return new Logger(prefix);
+        String key = prefix==null ? "" : prefix;
+        Logger logger = registry.get(key);
+        if(logger==null){
+            Logger created = new Logger(key);
+            logger = registry.putIfAbsent(key, created);
+            if(logger==null){
+                logger = created;
+            }
+        }
+        return logger;
     }
 
     /**
@@ -129,39 +164,33 @@ public class Logger {
     }
 
     /**
-     * Does all dirty job
+     * Does all dirty job: appends message to pre-built header, encodes it and gives it to sink of level
      *
      * @param level log level
      * @param message log message
      */
     private void publish(LogLevel level, String message){
-        PrintStream stream;
-
-        switch (level){
-            case WARN:
-            case ERROR:
-                stream = System.err;
-                break;
-            case TRACE:
-            case DEBUG:
-            case INFO:
-            default:
-                stream = System.out;
-                break;
+        Sink sink = (level==LogLevel.WARN || level==LogLevel.ERROR) ? stdErr : stdOut;
+
+        RecordBuffer buffer = RecordBuffer.acquire();
+        try {
+            buffer.text.append(message).append(Log.NEWLINE);
+            buffer.encode(headers[level.ordinal()]);
+            sink.write(level, buffer.asByteBuffer());
+        } catch (IOException e){
+            //same as PrintStream: logging never throws at caller
+        } finally {
+            buffer.release();
         }
-        String readyToGoMessage = createMessage(level,message);
-
-        stream.println(readyToGoMessage);
     }
 
     /**
-     * Builds full string which will be published
+     * Builds header of line, which goes before message
      *
      * @param lvl log level
-     * @param message log message
-     * @return ready-to-print line
+     * @return header with trailing space
      */
-    private String createMessage(LogLevel lvl,String message){
+    private String createHeader(LogLevel lvl){
         String color;
         String label;
         switch (lvl){
@@ -198,7 +227,6 @@ public class Logger {
         }
         line.append("(").append(color).append(label).append(Color.RESET).append(")");
         line.append(" ");
-        line.append(message);
 
         return line.toString();
     }
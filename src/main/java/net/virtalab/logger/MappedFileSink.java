@@ -0,0 +1,223 @@
+package net.virtalab.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sink, which writes records into memory-mapped segment files "name.1", "name.2" and so on.
+ * <br>
+ * Writer threads don't share any lock: each one claims region of segment by atomic increment of its offset
+ * and copies record there. No system call is made per record, OS writes mapped pages by itself.
+ * Thread, which first claims region behind end of segment, rolls over to next segment:
+ * it waits until records claimed before it are copied, cuts unused tail of file and maps new segment.
+ * Other threads wait for new segment meanwhile.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public class MappedFileSink implements Sink {
+    public static final int defaultSegmentSize = 64 * 1024 * 1024;
+
+    private final File file;
+    private final int segmentSize;
+
+    private volatile Segment current;
+    private volatile boolean closed;
+    private long lastIndex;
+
+    /**
+     * Creates sink with segments of {@link #defaultSegmentSize}
+     *
+     * @param file base name of segment files
+     * @throws IOException if first segment cannot be mapped
+     */
+    public MappedFileSink(File file) throws IOException {
+        this(file, defaultSegmentSize);
+    }
+
+    /**
+     * Creates sink
+     *
+     * @param file base name of segment files, segment number is added to it
+     * @param segmentSize size of single segment (in bytes), it is also max size of single record
+     * @throws IOException if first segment cannot be mapped
+     */
+    public MappedFileSink(File file, int segmentSize) throws IOException {
+        if(file==null){
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if(segmentSize<=0){
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.file = file.getAbsoluteFile();
+        this.segmentSize = segmentSize;
+        this.lastIndex = lastExistingIndex();
+        this.current = nextSegment();
+    }
+
+    @Override
+    public void write(LogLevel level, ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        if(length>segmentSize){
+            throw new IOException("Record of " + length + " bytes is bigger than segment");
+        }
+        while(true){
+            Segment s = current;
+            if(closed){
+                throw new IOException("Sink is closed");
+            }
+            long start = s.claimed.getAndAdd(length);
+            if(start + length <= segmentSize){
+                s.copy((int) start, record);
+                return;
+            }
+            if(start <= segmentSize){
+                //claims are contiguous, so only one thread crosses the end and it rolls over
+                s.end = (int) start;
+                roll(s);
+            } else {
+                while(current==s && !closed){
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    /**
+     * Nothing to do: records are in mapped memory already, OS writes it to file
+     */
+    @Override
+    public void flush(){
+    }
+
+    /**
+     * Forces mapped pages of current segment to storage device
+     */
+    @Override
+    public void sync(){
+        Segment s = current;
+        if(s!=null && !closed){
+            s.buffer.force();
+        }
+    }
+
+    /**
+     * Waits until claimed records are copied, cuts unused tail of current segment and closes it
+     *
+     * @throws IOException if segment cannot be closed properly
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(closed){ return; }
+        closed = true;
+        Segment s = current;
+        //claim the rest, so no writer can start copying into this segment anymore
+        long claimed = s.claimed.getAndAdd(segmentSize + 1L);
+        if(claimed <= segmentSize){
+            s.end = (int) claimed;
+        }
+        //otherwise writer crossed the end before and sets it
+        while(s.end<0){
+            Thread.yield();
+        }
+        s.finish(s.end);
+    }
+
+    private synchronized void roll(Segment full) throws IOException {
+        if(closed){
+            //segment is finished by close()
+            throw new IOException("Sink is closed");
+        }
+        try {
+            full.finish(full.end);
+            current = nextSegment();
+        } catch (IOException e){
+            closed = true;
+            throw e;
+        }
+    }
+
+    private Segment nextSegment() throws IOException {
+        lastIndex++;
+        return new Segment(new File(file.getPath() + "." + lastIndex), segmentSize);
+    }
+
+    private long lastExistingIndex(){
+        File dir = file.getParentFile();
+        String[] names = dir==null ? null : dir.list();
+        if(names==null){ return 0; }
+        String prefix = file.getName() + ".";
+        long last = 0;
+        for(String name : names){
+            if(!name.startsWith(prefix)){ continue; }
+            try {
+                last = Math.max(last, Long.parseLong(name.substring(prefix.length())));
+            } catch (NumberFormatException e){
+                //not a segment
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Single mapped file
+     */
+    private static final class Segment {
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        /**
+         * End of claimed regions, may go above size
+         */
+        private final AtomicLong claimed = new AtomicLong();
+        /**
+         * Number of bytes already copied
+         */
+        private final AtomicLong written = new AtomicLong();
+        /**
+         * End of content: start of claim, which crossed the end. -1 until it happens.
+         */
+        private volatile int end = -1;
+
+        private Segment(File file, int size) throws IOException {
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        private void copy(int start, ByteBuffer record){
+            int length = record.remaining();
+            ByteBuffer target = buffer.duplicate();
+            ((Buffer) target).position(start);
+            target.put(record);
+            written.addAndGet(length);
+        }
+
+        /**
+         * Waits for copies of claimed records and cuts file to its real content
+         *
+         * @param end end of last claimed record, which fits into segment
+         * @throws IOException if file cannot be closed
+         */
+        private void finish(int end) throws IOException {
+            while(written.get() < end){
+                Thread.yield();
+            }
+            buffer.force();
+            try {
+                channel.truncate(end);
+            } catch (IOException e){
+                //some systems don't allow to cut mapped file, then tail stays filled with zeros
+            } finally {
+                raf.close();
+            }
+        }
+    }
+}
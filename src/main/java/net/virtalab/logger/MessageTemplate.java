@@ -0,0 +1,235 @@
+package net.virtalab.logger;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsed message template like "user={} took={}ms".
+ * <br>
+ * Template is split by {} placeholders once and cached, so repeated templates are not scanned again.
+ * Arguments are rendered only when message is really printed.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class MessageTemplate {
+    static final String PLACEHOLDER = "{}";
+
+    /**
+     * Max number of cached templates. Templates above limit are parsed every time.
+     * Protects memory from code, which builds templates dynamically.
+     */
+    private static final int CACHE_LIMIT = 1024;
+
+    private static final ConcurrentMap<String, MessageTemplate> cache = new ConcurrentHashMap<String, MessageTemplate>();
+
+    private final String template;
+    /**
+     * Text around placeholders: n placeholders give n+1 literals
+     */
+    private final String[] literals;
+
+    private MessageTemplate(String template){
+        this.template = template;
+
+        int count = 0;
+        int from = 0;
+        int idx;
+        while((idx = template.indexOf(PLACEHOLDER, from)) >= 0){
+            count++;
+            from = idx + PLACEHOLDER.length();
+        }
+
+        this.literals = new String[count + 1];
+        from = 0;
+        for(int i=0;i<count;i++){
+            idx = template.indexOf(PLACEHOLDER, from);
+            literals[i] = template.substring(from, idx);
+            from = idx + PLACEHOLDER.length();
+        }
+        literals[count] = template.substring(from);
+    }
+
+    /**
+     * Provides parsed template, from cache if possible
+     *
+     * @param template message template with {} placeholders
+     * @return parsed template
+     */
+    static MessageTemplate of(String template){
+        MessageTemplate t = cache.get(template);
+        if(t==null){
+            t = new MessageTemplate(template);
+            if(cache.size() < CACHE_LIMIT){
+                cache.putIfAbsent(template, t);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Provides template as it was given
+     *
+     * @return raw template
+     */
+    String getTemplate(){
+        return template;
+    }
+
+    /**
+     * Provides number of {} placeholders in template
+     *
+     * @return number of placeholders
+     */
+    int getPlaceholderCount(){
+        return literals.length - 1;
+    }
+
+    /**
+     * Formats message
+     *
+     * @param args arguments for placeholders
+     * @return ready-to-print message
+     */
+    String format(Object[] args){
+        StringBuilder sb = new StringBuilder(template.length() + 16);
+        formatTo(args, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends message to given builder. Placeholders without argument stay as is, extra arguments are ignored.
+     *
+     * @param args arguments for placeholders
+     * @param sb builder to append to
+     */
+    void formatTo(Object[] args, StringBuilder sb){
+        int argCount = args==null ? 0 : args.length;
+        sb.append(literals[0]);
+        for(int i=1;i<literals.length;i++){
+            if(i<=argCount){
+                appendArg(args[i-1], sb);
+            } else {
+                sb.append(PLACEHOLDER);
+            }
+            sb.append(literals[i]);
+        }
+    }
+
+    /**
+     * Makes copy of arguments, where arguments, which may change before message is printed,
+     * are replaced with their string representation. Array of caller is never changed.
+     *
+     * @param args arguments for placeholders
+     * @return frozen copy, NULL for NULL
+     */
+    static Object[] freeze(Object[] args){
+        return freeze(args, null);
+    }
+
+    /**
+     * Same as {@link #freeze(Object[])}, but fills given array, when it has same length
+     *
+     * @param args arguments for placeholders
+     * @param into array to reuse, may be null
+     * @return frozen copy, NULL for NULL
+     */
+    static Object[] freeze(Object[] args, Object[] into){
+        if(args==null){ return null; }
+        //caller may reuse its array as well
+        Object[] frozen = into!=null && into.length==args.length ? into : new Object[args.length];
+        for(int i=0;i<frozen.length;i++){
+            frozen[i] = freezeArg(args[i]);
+        }
+        return frozen;
+    }
+
+    /**
+     * @param arg argument for placeholder
+     * @return argument itself, if it can't change, or its string representation
+     */
+    static Object freezeArg(Object arg){
+        if(arg==null || isImmutable(arg)){
+            return arg;
+        }
+        StringBuilder sb = new StringBuilder();
+        appendArg(arg, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Compares argument with frozen one without formatting, unless argument may change
+     *
+     * @param frozen argument made by {@link #freezeArg(Object)}
+     * @param arg argument for placeholder
+     * @return true if both give same text
+     */
+    static boolean sameArg(Object frozen, Object arg){
+        if(arg==null || frozen==null){
+            return arg==frozen;
+        }
+        if(isImmutable(arg)){
+            return arg.equals(frozen);
+        }
+        return frozen.equals(freezeArg(arg));
+    }
+
+    private static boolean isImmutable(Object o){
+        return o instanceof String || o instanceof Integer || o instanceof Long || o instanceof Boolean
+                || o instanceof Character || o instanceof Double || o instanceof Float
+                || o instanceof Short || o instanceof Byte || o instanceof Enum;
+    }
+
+    /**
+     * Appends string representation of argument. Arrays are printed element by element.
+     *
+     * @param arg argument
+     * @param sb builder to append to
+     */
+    static void appendArg(Object arg, StringBuilder sb){
+        if(arg==null){
+            sb.append("null");
+            return;
+        }
+        //boxed primitives are appended without making string of them
+        if(arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte){
+            sb.append(((Number) arg).longValue());
+            return;
+        }
+        if(arg instanceof Boolean){
+            sb.append(((Boolean) arg).booleanValue());
+            return;
+        }
+        if(arg instanceof Character){
+            sb.append(((Character) arg).charValue());
+            return;
+        }
+        try {
+            if(!arg.getClass().isArray()){
+                sb.append(arg.toString());
+            } else if(arg instanceof Object[]){
+                sb.append(Arrays.deepToString((Object[]) arg));
+            } else if(arg instanceof int[]){
+                sb.append(Arrays.toString((int[]) arg));
+            } else if(arg instanceof long[]){
+                sb.append(Arrays.toString((long[]) arg));
+            } else if(arg instanceof byte[]){
+                sb.append(Arrays.toString((byte[]) arg));
+            } else if(arg instanceof char[]){
+                sb.append(Arrays.toString((char[]) arg));
+            } else if(arg instanceof short[]){
+                sb.append(Arrays.toString((short[]) arg));
+            } else if(arg instanceof boolean[]){
+                sb.append(Arrays.toString((boolean[]) arg));
+            } else if(arg instanceof float[]){
+                sb.append(Arrays.toString((float[]) arg));
+            } else {
+                sb.append(Arrays.toString((double[]) arg));
+            }
+        } catch (RuntimeException e){
+            //broken toString() must not break logging
+            sb.append("[").append(arg.getClass().getName()).append(".toString() failed: ").append(e).append("]");
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout compiled from pattern like "%color%letter %time %class %tag %msg%ex%reset".
+ * <br>
+ * Pattern is compiled once into array of segments. Parts, which depend only on log level
+ * (color, letter, reset and plain text between them) are pre-rendered for every level,
+ * parts disabled by configuration are dropped at compile time.
+ * So formatting of record is straight loop over segments.
+ * <br>
+ * Supported tokens:
+ * <ul>
+ *     <li>%color - color of level</li>
+ *     <li>%letter - letter of level</li>
+ *     <li>%time - timestamp</li>
+ *     <li>%class - short name of caller class</li>
+ *     <li>%tag - tag aka prefix</li>
+ *     <li>%msg - message</li>
+ *     <li>%mdc - diagnostic context of thread as "key=value key2=value2", see {@link Log#putContext(String, String)}</li>
+ *     <li>%ex - new line and stacktrace, if record has exception</li>
+ *     <li>%reset - resets color</li>
+ *     <li>%% - percent sign</li>
+ * </ul>
+ * Space right after %letter, %time, %class, %tag or %mdc is printed only when this part is printed.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class PatternLayout extends Layout {
+    static final String COLOR = "color";
+    static final String LETTER = "letter";
+    static final String TIME = "time";
+    static final String CLASS = "class";
+    static final String TAG = "tag";
+    static final String MSG = "msg";
+    static final String MDC = "mdc";
+    static final String EX = "ex";
+    static final String RESET = "reset";
+
+    private static final String[] TOKENS = {COLOR, LETTER, TIME, CLASS, TAG, MSG, MDC, EX, RESET};
+
+    private static final String WTF_LETTER = "WTF";
+
+    private final Segment[] segments;
+    private final boolean needsClassName;
+    private final boolean needsContext;
+
+    private PatternLayout(Segment[] segments, boolean needsClassName, boolean needsContext){
+        this.segments = segments;
+        this.needsClassName = needsClassName;
+        this.needsContext = needsContext;
+    }
+
+    @Override
+    void format(Log.LogObject l, StringBuilder sb){
+        for(Segment segment : segments){
+            segment.write(l, sb);
+        }
+    }
+
+    @Override
+    boolean needsClassName(){
+        return needsClassName;
+    }
+
+    @Override
+    boolean needsContext(){
+        return needsContext;
+    }
+
+    /**
+     * Compiles pattern against configuration
+     *
+     * @param pattern layout pattern
+     * @param c configuration snapshot
+     * @return ready layout
+     */
+    static PatternLayout compile(String pattern, LogConfig c){
+        List<Part> parts = parse(pattern);
+        List<Segment> segments = new ArrayList<Segment>();
+        List<Part> constants = new ArrayList<Part>();
+        boolean needsClassName = false;
+        boolean needsContext = false;
+
+        for(Part part : parts){
+            if(!isEnabled(part, c)){
+                continue;
+            }
+            if(part.isLevelConstant()){
+                constants.add(part);
+                continue;
+            }
+            if(!constants.isEmpty()){
+                segments.add(new LevelConstantSegment(constants, c));
+                constants.clear();
+            }
+            if(TIME.equals(part.token)){
+                segments.add(new TimeSegment(c.timestampFormatter, part.suffix));
+            } else if(CLASS.equals(part.token)){
+                segments.add(new ClassSegment(part.suffix));
+                needsClassName = true;
+            } else if(TAG.equals(part.token)){
+                segments.add(new TagSegment(part.suffix));
+            } else if(MSG.equals(part.token)){
+                segments.add(new MessageSegment());
+            } else if(MDC.equals(part.token)){
+                segments.add(new ContextSegment(part.suffix));
+                needsContext = true;
+            } else if(EX.equals(part.token)){
+                segments.add(new ExceptionSegment());
+            }
+        }
+        if(!constants.isEmpty()){
+            segments.add(new LevelConstantSegment(constants, c));
+        }
+        return new PatternLayout(segments.toArray(new Segment[segments.size()]), needsClassName, needsContext);
+    }
+
+    /**
+     * Splits pattern to text and tokens. Unknown tokens are kept as text.
+     *
+     * @param pattern layout pattern
+     * @return parts of pattern
+     */
+    private static List<Part> parse(String pattern){
+        List<Part> parts = new ArrayList<Part>();
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while(i<pattern.length()){
+            char ch = pattern.charAt(i);
+            if(ch!='%'){
+                text.append(ch);
+                i++;
+                continue;
+            }
+            if(pattern.startsWith("%%", i)){
+                text.append('%');
+                i += 2;
+                continue;
+            }
+            String token = tokenAt(pattern, i+1);
+            if(token==null){
+                text.append(ch);
+                i++;
+                continue;
+            }
+            if(text.length()>0){
+                parts.add(Part.text(text.toString()));
+                text.setLength(0);
+            }
+            i += token.length() + 1;
+            //space after optional part belongs to this part
+            String suffix = "";
+            if(isOptional(token) && i<pattern.length() && pattern.charAt(i)==' '){
+                suffix = " ";
+                i++;
+            }
+            parts.add(Part.token(token, suffix));
+        }
+        if(text.length()>0){
+            parts.add(Part.text(text.toString()));
+        }
+        return parts;
+    }
+
+    private static String tokenAt(String pattern, int idx){
+        for(String token : TOKENS){
+            if(pattern.startsWith(token, idx)){
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isOptional(String token){
+        return LETTER.equals(token) || TIME.equals(token) || CLASS.equals(token) || TAG.equals(token) || MDC.equals(token);
+    }
+
+    private static boolean isEnabled(Part part, LogConfig c){
+        if(LETTER.equals(part.token)){ return c.isLetterEnabled; }
+        if(TIME.equals(part.token)){ return c.isTimeEnabled; }
+        if(CLASS.equals(part.token)){ return c.isClassNameEnabled; }
+        if(TAG.equals(part.token)){ return c.isTagEnabled; }
+        return true;
+    }
+
+    /**
+     * Piece of parsed pattern: either plain text or token
+     */
+    private static final class Part {
+        private final String text;
+        private final String token;
+        private final String suffix;
+
+        private Part(String text, String token, String suffix){
+            this.text = text;
+            this.token = token;
+            this.suffix = suffix;
+        }
+
+        static Part text(String text){
+            return new Part(text, null, "");
+        }
+
+        static Part token(String token, String suffix){
+            return new Part(null, token, suffix);
+        }
+
+        boolean isLevelConstant(){
+            return token==null || COLOR.equals(token) || LETTER.equals(token) || RESET.equals(token);
+        }
+
+        /**
+         * Renders part, which depends only on level
+         */
+        void render(LogLevel level, boolean wtf, LogConfig c, StringBuilder sb){
+            if(token==null){
+                sb.append(text);
+            } else if(COLOR.equals(token)){
+                String color = c.colorMatrix.get(level);
+                if(color!=null){
+                    sb.append(color);
+                }
+            } else if(LETTER.equals(token)){
+                String letter = wtf ? WTF_LETTER : c.letterMatrix.get(level);
+                if(letter!=null){
+                    sb.append(letter).append(suffix);
+                }
+            } else if(RESET.equals(token)){
+                sb.append(Color.RESET);
+            }
+        }
+    }
+
+    /**
+     * Writes part of line
+     */
+    private interface Segment {
+        void write(Log.LogObject l, StringBuilder sb);
+    }
+
+    /**
+     * Text, which depends only on level, pre-rendered for every level
+     */
+    private static final class LevelConstantSegment implements Segment {
+        /**
+         * Index is level ordinal * 2, plus 1 for "What a Terrible Failure" records
+         */
+        private final String[] rendered;
+
+        private LevelConstantSegment(List<Part> parts, LogConfig c){
+            LogLevel[] levels = LogLevel.values();
+            rendered = new String[levels.length * 2];
+            for(LogLevel level : levels){
+                for(int wtf=0;wtf<2;wtf++){
+                    StringBuilder sb = new StringBuilder();
+                    for(Part part : parts){
+                        part.render(level, wtf==1, c, sb);
+                    }
+                    rendered[level.ordinal()*2 + wtf] = sb.toString();
+                }
+            }
+        }
+
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            sb.append(rendered[l.level.ordinal()*2 + (l.wtf ? 1 : 0)]);
+        }
+    }
+
+    private static final class TimeSegment implements Segment {
+        private final TimestampFormatter formatter;
+        private final String suffix;
+
+        private TimeSegment(TimestampFormatter formatter, String suffix){
+            this.formatter = formatter;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            formatter.formatTo(l.timestamp, sb);
+            sb.append(suffix);
+        }
+    }
+
+    private static final class ClassSegment implements Segment {
+        private final String suffix;
+
+        private ClassSegment(String suffix){
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            if(l.className!=null){
+                sb.append(l.className).append(suffix);
+            }
+        }
+    }
+
+    private static final class TagSegment implements Segment {
+        private final String suffix;
+
+        private TagSegment(String suffix){
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            if(l.tag!=null && !l.tag.isEmpty()){
+                sb.append(l.tag).append(suffix);
+            }
+        }
+    }
+
+    private static final class MessageSegment implements Segment {
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            if(l.template!=null){
+                l.template.formatTo(l.args, sb);
+            } else if(l.message!=null){
+                sb.append(l.message);
+            }
+        }
+    }
+
+    private static final class ContextSegment implements Segment {
+        private final String suffix;
+
+        private ContextSegment(String suffix){
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            if(l.context!=null && !l.context.isEmpty()){
+                l.context.appendTo(sb);
+                sb.append(suffix);
+            }
+        }
+    }
+
+    private static final class ExceptionSegment implements Segment {
+        @Override
+        public void write(Log.LogObject l, StringBuilder sb){
+            if(l.th!=null){
+                sb.append(Log.NEWLINE);
+                appendStackTrace(l.th, l.config, sb);
+            }
+        }
+    }
+}
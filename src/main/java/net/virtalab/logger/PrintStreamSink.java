@@ -0,0 +1,39 @@
+package net.virtalab.logger;
+
+import java.io.PrintStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink, which writes records to {@link PrintStream}. Made for {@link Log#changeStreamForLevel(LogLevel, PrintStream)}
+ * <br>
+ * Records are written as UTF-8 bytes, whatever charset stream has.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+class PrintStreamSink implements Sink {
+    private final PrintStream stream;
+
+    PrintStreamSink(PrintStream stream){
+        this.stream = stream;
+    }
+
+    @Override
+    public void write(LogLevel level, ByteBuffer record){
+        //bytes go as is, stream's own encoder is not involved
+        stream.write(record.array(), record.arrayOffset() + record.position(), record.remaining());
+        ((Buffer) record).position(record.limit());
+    }
+
+    @Override
+    public void flush(){
+        stream.flush();
+    }
+
+    @Override
+    public void close(){
+        //stream belongs to the one who created it
+        stream.flush();
+    }
+}
@@ -0,0 +1,121 @@
+package net.virtalab.logger;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable per-thread buffers for formatting and encoding record.
+ * <br>
+ * Record is formatted into char buffer and then encoded to UTF-8 bytes, which go straight to the sinks,
+ * so neither String nor encoder of stream is involved.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class RecordBuffer {
+    /**
+     * Buffers which grew above this size (because of huge record) are not kept for next record
+     */
+    private static final int MAX_RETAINED_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<RecordBuffer> local = new ThreadLocal<RecordBuffer>();
+
+    final StringBuilder text = new StringBuilder(256);
+    byte[] bytes = new byte[512];
+    int length;
+
+    private ByteBuffer view = ByteBuffer.wrap(bytes);
+
+    private boolean inUse;
+
+    private RecordBuffer(){
+    }
+
+    /**
+     * Provides empty buffer of current thread
+     *
+     * @return buffer ready for new record
+     */
+    static RecordBuffer acquire(){
+        RecordBuffer buffer = local.get();
+        if(buffer==null){
+            buffer = new RecordBuffer();
+            local.set(buffer);
+        } else if(buffer.inUse){
+            //record logged while formatting another one
+            buffer = new RecordBuffer();
+        }
+        buffer.inUse = true;
+        buffer.text.setLength(0);
+        buffer.length = 0;
+        return buffer;
+    }
+
+    /**
+     * Frees buffer for next record
+     */
+    void release(){
+        inUse = false;
+        if(text.capacity() > MAX_RETAINED_SIZE || bytes.length > MAX_RETAINED_SIZE * 3){
+            local.remove();
+        }
+    }
+
+    /**
+     * Encodes {@link #text} to UTF-8 into {@link #bytes}. ASCII chars are copied as is.
+     */
+    void encode(){
+        encode(null);
+    }
+
+    /**
+     * Puts ready bytes and then encodes {@link #text} after them
+     *
+     * @param header pre-encoded beginning of record, may be null
+     */
+    void encode(byte[] header){
+        int len = text.length();
+        int pos = header==null ? 0 : header.length;
+        ensureCapacity(pos + len);
+        if(header!=null){
+            System.arraycopy(header, 0, bytes, 0, pos);
+        }
+        byte[] b = bytes;
+        int i = 0;
+        //ASCII fast path
+        while(i<len){
+            char ch = text.charAt(i);
+            if(ch>=0x80){ break; }
+            b[pos++] = (byte) ch;
+            i++;
+        }
+        if(i<len){
+            //worst case is 3 bytes per char
+            ensureCapacity(pos + (len - i) * 3);
+            b = bytes;
+            pos = Utf8.encode(text, i, len, b, pos);
+        }
+        length = pos;
+    }
+
+    /**
+     * Provides encoded record as buffer, which is reused for next records
+     *
+     * @return buffer with encoded record between position and limit
+     */
+    ByteBuffer asByteBuffer(){
+        //Buffer methods: ByteBuffer overrides of Java 9+ don't exist on Java 8
+        ((Buffer) view).clear();
+        ((Buffer) view).limit(length);
+        return view;
+    }
+
+    private void ensureCapacity(int size){
+        if(bytes.length < size){
+            byte[] bigger = new byte[Math.max(size, bytes.length * 2)];
+            System.arraycopy(bytes, 0, bigger, 0, bytes.length);
+            bytes = bigger;
+            view = ByteBuffer.wrap(bigger);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collapses runs of identical consecutive records into first record and "Last message repeated N times" line.
+ * <br>
+ * Records are identical when level, tag, template with its arguments and exception trace are same
+ * (time and caller don't matter). Message is not formatted to compare records.
+ * Runs are tracked separately for every tag, so records of other tags don't break run.
+ * Repeat line is printed when different record comes, when run lasts longer than timeout,
+ * or by background thread, when run has been quiet for timeout. Quiet runs are dropped by background thread.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class RepeatFilter implements Runnable {
+    static final String THREAD_NAME = "virtalab-logger-repeats";
+    static final String REPEATED_MESSAGE = "Last message repeated {} times";
+
+    private final long timeoutMillis;
+    private final ConcurrentMap<String, Run> runs = new ConcurrentHashMap<String, Run>();
+    private volatile boolean running = true;
+
+    RepeatFilter(long timeoutMillis){
+        this.timeoutMillis = timeoutMillis;
+        Thread thread = new Thread(this, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    long getTimeoutMillis(){
+        return timeoutMillis;
+    }
+
+    /**
+     * Checks record against run of its tag and prints it, when it doesn't extend run.
+     * Repeat line of previous run and new record are printed under lock of run,
+     * so no other record of tag gets between them.
+     *
+     * @param l log object
+     * @return true if record was printed, false if it only extends run and should be released by caller
+     */
+    boolean write(Log.LogObject l){
+        long trace = l.th==null ? 0 : StackTraceRenderer.fingerprint(l.th);
+        String key = l.tag==null ? "" : l.tag;
+        while(true){
+            Run run = runs.get(key);
+            if(run==null){
+                Run created = new Run();
+                run = runs.putIfAbsent(key, created);
+                if(run==null){
+                    run = created;
+                }
+            }
+            synchronized (run){
+                if(run.evicted){
+                    //background thread dropped run between lookup and lock
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                if(run.matches(l, trace)){
+                    run.repeats++;
+                    run.last = now;
+                    run.config = l.config;
+                    if(now - run.started >= timeoutMillis){
+                        //long run: report it now, next repeats start new count
+                        Log.writeThrough(run.summary(l.config));
+                        run.started = now;
+                    }
+                    return false;
+                }
+                if(run.repeats>0){
+                    Log.writeThrough(run.summary(l.config));
+                }
+                run.start(l, trace, now);
+                Log.writeThrough(l);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stops background thread and prints repeat lines of pending runs
+     */
+    void stop(){
+        running = false;
+        flushQuiet(0);
+    }
+
+    @Override
+    public void run(){
+        while(running){
+            try {
+                Thread.sleep(Math.max(1, timeoutMillis));
+            } catch (InterruptedException e){
+                return;
+            }
+            if(running){
+                flushQuiet(timeoutMillis);
+            }
+        }
+    }
+
+    /**
+     * Prints repeat lines of runs, which got no record for given time
+     *
+     * @param quietMillis min time since last record of run
+     */
+    private void flushQuiet(long quietMillis){
+        List<Map.Entry<String, Run>> all = new ArrayList<Map.Entry<String, Run>>(runs.entrySet());
+        long now = System.currentTimeMillis();
+        for(Map.Entry<String, Run> entry : all){
+            Run run = entry.getValue();
+            synchronized (run){
+                if(now - run.last < quietMillis){
+                    continue;
+                }
+                if(run.repeats>0){
+                    Log.writeThrough(run.summary(run.config));
+                    run.started = now;
+                }
+                //quiet run holds nothing to print, so tags, which are gone, don't stay in map
+                run.evicted = true;
+                runs.remove(entry.getKey(), run);
+            }
+        }
+    }
+
+    /**
+     * Last printed record of tag and number of its repeats
+     */
+    private static final class Run {
+        private LogLevel level;
+        private boolean wtf;
+        private String tag;
+        private MessageTemplate template;
+        private String message;
+        private Object[] args = new Object[0];
+        private int argCount;
+        private long trace;
+
+        private LogConfig config;
+        private int repeats;
+        private long started;
+        private long last;
+        private boolean evicted;
+
+        boolean matches(Log.LogObject l, long trace){
+            if(level==null || level!=l.level || wtf!=l.wtf || this.trace!=trace){ return false; }
+            if(tag==null ? l.tag!=null : !tag.equals(l.tag)){ return false; }
+            if(template!=null){
+                return l.template!=null && template.getTemplate().equals(l.template.getTemplate()) && sameArgs(l.args);
+            }
+            return l.template==null && (message==null ? l.message==null : message.equals(l.message));
+        }
+
+        void start(Log.LogObject l, long trace, long now){
+            this.level = l.level;
+            this.wtf = l.wtf;
+            this.tag = l.tag;
+            this.template = l.template;
+            this.message = l.message;
+            copyArgs(l.template!=null ? l.args : null);
+            this.trace = trace;
+            this.config = l.config;
+            this.repeats = 0;
+            this.started = now;
+            this.last = now;
+        }
+
+        private boolean sameArgs(Object[] other){
+            int count = other==null ? 0 : other.length;
+            if(count!=argCount){ return false; }
+            for(int i=0;i<count;i++){
+                if(!MessageTemplate.sameArg(args[i], other[i])){ return false; }
+            }
+            return true;
+        }
+
+        /**
+         * Keeps frozen arguments in own array, because record goes back to pool and caller may change its arguments
+         */
+        private void copyArgs(Object[] other){
+            int count = other==null ? 0 : other.length;
+            if(args.length < count){
+                args = new Object[count];
+            }
+            for(int i=0;i<args.length;i++){
+                args[i] = i<count ? MessageTemplate.freezeArg(other[i]) : null;
+            }
+            argCount = count;
+        }
+
+        /**
+         * Creates repeat line and resets counter
+         */
+        Log.LogObject summary(LogConfig c){
+            Log.LogObject s = new Log.LogObject(level);
+            s.wtf = wtf;
+            s.tag = tag;
+            s.template = MessageTemplate.of(REPEATED_MESSAGE);
+            s.args = new Object[]{ repeats };
+            s.timestamp = Clock.now();
+            s.config = c;
+            repeats = 0;
+            return s;
+        }
+    }
+}
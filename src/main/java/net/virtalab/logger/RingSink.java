@@ -0,0 +1,84 @@
+package net.virtalab.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sink, which keeps last records in memory. Older records are overwritten by newer ones.
+ * <br>
+ * Slots are reused, so when records are of similar size, ring doesn't allocate anything per record.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public class RingSink implements Sink {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final byte[][] slots;
+    private final int[] lengths;
+    /**
+     * Total number of records written, next record goes to slot (count % capacity)
+     */
+    private long count;
+
+    /**
+     * Creates ring
+     *
+     * @param capacity max number of records to keep
+     */
+    public RingSink(int capacity){
+        if(capacity<=0){
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new byte[capacity][];
+        this.lengths = new int[capacity];
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, ByteBuffer record){
+        int idx = (int) (count % slots.length);
+        int length = record.remaining();
+        byte[] slot = slots[idx];
+        if(slot==null || slot.length < length){
+            slot = new byte[length];
+            slots[idx] = slot;
+        }
+        record.get(slot, 0, length);
+        lengths[idx] = length;
+        count++;
+    }
+
+    /**
+     * Provides kept records from oldest to newest
+     *
+     * @return records with line separators
+     */
+    public synchronized List<String> getRecords(){
+        int size = (int) Math.min(count, slots.length);
+        List<String> records = new ArrayList<String>(size);
+        for(long i=count-size;i<count;i++){
+            int idx = (int) (i % slots.length);
+            records.add(new String(slots[idx], 0, lengths[idx], UTF8));
+        }
+        return records;
+    }
+
+    /**
+     * Forgets all kept records
+     */
+    public synchronized void clear(){
+        count = 0;
+    }
+
+    @Override
+    public void flush(){
+        //nothing to write out
+    }
+
+    @Override
+    public void close(){
+        clear();
+    }
+}
@@ -0,0 +1,331 @@
+package net.virtalab.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sink, which writes records to file and rotates it by size and/or by time.
+ * <br>
+ * Rotated file is renamed to "name.yyyyMMdd-HHmmss" and gzipped by background thread,
+ * so rotation never waits for compression. Only given number of newest archives is kept.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public class RollingFileSink implements Sink {
+    /**
+     * Suffix of compressed archives
+     */
+    public static final String ARCHIVE_SUFFIX = ".gz";
+
+    private static final String ROTATED_FORMAT = "yyyyMMdd-HHmmss";
+
+    /**
+     * Compression thread, shared by all rolling sinks
+     */
+    private static final ExecutorService compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "virtalab-logger-compressor");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Orders "time" and "time-N" parts of archive names: by time, then by N as number ("time" is N=0),
+     * so "time-10" goes after "time-9"
+     */
+    private static final Comparator<String> ARCHIVE_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int byTime = time(a).compareTo(time(b));
+            if(byTime!=0){
+                return byTime;
+            }
+            return Long.compare(number(a), number(b));
+        }
+
+        private String time(String s){
+            return s.substring(0, Math.min(s.length(), ROTATED_FORMAT.length()));
+        }
+
+        private long number(String s){
+            if(s.length() <= ROTATED_FORMAT.length() + 1){
+                return 0;
+            }
+            try {
+                return Long.parseLong(s.substring(ROTATED_FORMAT.length() + 1));
+            } catch (NumberFormatException e){
+                return 0;
+            }
+        }
+    };
+
+    private final File file;
+    private final long maxFileSize;
+    private final long rolloverInterval;
+    private final int maxBackups;
+    private final boolean autoFlush;
+
+    private ChannelSink current;
+    private long currentSize;
+    private long nextRollover;
+    /**
+     * Name of latest rotated file without number and its number, see {@link #rotatedName(long)}
+     */
+    private String lastRotatedBase;
+    private int lastRotatedNumber;
+
+    private final List<Future<?>> pendingCompressions = new ArrayList<Future<?>>();
+
+    /**
+     * Creates sink, which rotates file by size only and writes every record immediately
+     *
+     * @param file active log file
+     * @param maxFileSize file is rotated before it grows above this size (in bytes)
+     * @param maxBackups number of compressed archives to keep
+     * @throws IOException if file cannot be opened
+     */
+    public RollingFileSink(File file, long maxFileSize, int maxBackups) throws IOException {
+        this(file, maxFileSize, 0, maxBackups, true);
+    }
+
+    /**
+     * Creates sink
+     *
+     * @param file active log file
+     * @param maxFileSize file is rotated before it grows above this size (in bytes), 0 disables rotation by size
+     * @param rolloverInterval file is rotated every interval (in millis, aligned to local midnight), 0 disables rotation by time
+     * @param maxBackups number of compressed archives to keep
+     * @param autoFlush true to write every record immediately, false to write them when buffer is full or flushed
+     * @throws IOException if file cannot be opened
+     */
+    public RollingFileSink(File file, long maxFileSize, long rolloverInterval, int maxBackups, boolean autoFlush) throws IOException {
+        if(file==null){
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        this.file = file.getAbsoluteFile();
+        this.maxFileSize = Math.max(0, maxFileSize);
+        this.rolloverInterval = Math.max(0, rolloverInterval);
+        this.maxBackups = Math.max(0, maxBackups);
+        this.autoFlush = autoFlush;
+        open(System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void write(LogLevel level, ByteBuffer record) throws IOException {
+        if(current==null){
+            //file could not be opened again after rotation, try it once more
+            open(System.currentTimeMillis());
+        }
+        int length = record.remaining();
+        boolean sizeExceeded = maxFileSize>0 && currentSize>0 && currentSize + length > maxFileSize;
+        IOException rotationFailure = null;
+        if(sizeExceeded || (rolloverInterval>0 && System.currentTimeMillis() >= nextRollover)){
+            try {
+                rotate();
+            } catch (IOException e){
+                //file is open again, so record still goes to it
+                rotationFailure = e;
+            }
+        }
+        if(current==null){
+            throw rotationFailure;
+        }
+        current.write(level, record);
+        currentSize += length;
+        if(rotationFailure!=null){
+            throw rotationFailure;
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if(current!=null){
+            current.flush();
+        }
+    }
+
+    @Override
+    public synchronized void sync() throws IOException {
+        if(current!=null){
+            current.sync();
+        }
+    }
+
+    /**
+     * Closes active file and waits until rotated files are compressed
+     *
+     * @throws IOException if file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(current!=null){
+            current.close();
+            current = null;
+        }
+        for(Future<?> compression : pendingCompressions){
+            try {
+                compression.get();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e){
+                //archive stays uncompressed, nothing to do here
+            }
+        }
+        pendingCompressions.clear();
+    }
+
+    /**
+     * Rotates file now, independently of size and time.
+     * File is opened again even if rotation fails, so records keep going to active file.
+     * If file cannot be opened again, next write tries to open it.
+     *
+     * @throws IOException if file cannot be rotated
+     */
+    public synchronized void rotate() throws IOException {
+        if(current!=null){
+            ChannelSink closing = current;
+            current = null;
+            closing.close();
+        }
+        long now = System.currentTimeMillis();
+        try {
+            if(file.exists() && file.length()>0){
+                final File rotated = rotatedName(now);
+                move(file, rotated);
+                pendingCompressions.add(compressor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        compress(rotated);
+                        removeOldArchives();
+                    }
+                }));
+                //forget finished compressions
+                for(int i=pendingCompressions.size()-1;i>=0;i--){
+                    if(pendingCompressions.get(i).isDone()){
+                        pendingCompressions.remove(i);
+                    }
+                }
+            }
+        } finally {
+            open(now);
+        }
+    }
+
+    /**
+     * Renames file atomically if file system can do it, else by plain move
+     *
+     * @param from active file
+     * @param to rotated file
+     * @throws IOException if file cannot be moved
+     */
+    private static void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e){
+            Files.move(from.toPath(), to.toPath());
+        }
+    }
+
+    private void open(long now) throws IOException {
+        current = new ChannelSink(file, autoFlush);
+        currentSize = file.length();
+        if(rolloverInterval>0){
+            long offset = TimeZone.getDefault().getOffset(now);
+            nextRollover = ((now + offset) / rolloverInterval + 1) * rolloverInterval - offset;
+        }
+    }
+
+    private File rotatedName(long now){
+        SimpleDateFormat format = new SimpleDateFormat(ROTATED_FORMAT);
+        String base = file.getPath() + "." + format.format(new Date(now));
+        //numbers only grow inside second: number of archive removed by retention is not taken again
+        int i = base.equals(lastRotatedBase) ? lastRotatedNumber + 1 : 0;
+        File rotated = rotatedName(base, i);
+        while(rotated.exists() || new File(rotated.getPath() + ARCHIVE_SUFFIX).exists()){
+            rotated = rotatedName(base, ++i);
+        }
+        lastRotatedBase = base;
+        lastRotatedNumber = i;
+        return rotated;
+    }
+
+    private static File rotatedName(String base, int number){
+        return new File(number==0 ? base : base + "-" + number);
+    }
+
+    /**
+     * Gzips file and removes original. On failure original stays as is.
+     *
+     * @param rotated rotated file
+     */
+    private static void compress(File rotated){
+        File archive = new File(rotated.getPath() + ARCHIVE_SUFFIX);
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            InputStream in = new FileInputStream(rotated);
+            try {
+                OutputStream out = new GZIPOutputStream(new FileOutputStream(archive), buffer.length);
+                try {
+                    int n;
+                    while((n = in.read(buffer)) > 0){
+                        out.write(buffer, 0, n);
+                    }
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+            Files.delete(rotated.toPath());
+        } catch (IOException e){
+            archive.delete();
+        }
+    }
+
+    /**
+     * Removes oldest archives above {@link #maxBackups}.
+     * Archive names contain rotation time and number of rotation inside same second, so they are ordered by both.
+     */
+    private void removeOldArchives(){
+        File dir = file.getParentFile();
+        String prefix = file.getName() + ".";
+        String[] names = dir.list();
+        if(names==null){ return; }
+        List<String> archives = new ArrayList<String>();
+        for(String name : names){
+            if(name.startsWith(prefix) && name.endsWith(ARCHIVE_SUFFIX)){
+                archives.add(name.substring(prefix.length(), name.length() - ARCHIVE_SUFFIX.length()));
+            }
+        }
+        String[] sorted = archives.toArray(new String[archives.size()]);
+        Arrays.sort(sorted, ARCHIVE_ORDER);
+        for(int i=0;i<sorted.length-maxBackups;i++){
+            new File(dir, prefix + sorted[i] + ARCHIVE_SUFFIX).delete();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.virtalab.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of encoded log records. Set for concrete log level by {@link Log#changeSinkForLevel(LogLevel, Sink)}
+ * or {@link Log#addSinkForLevel(LogLevel, Sink)}
+ * <br>
+ * Logger calls sink from many threads, so implementations must be thread-safe.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+public interface Sink {
+
+    /**
+     * Writes single record.
+     * Record is UTF-8 encoded line with line separator, located between position and limit of given buffer.
+     * Buffer is reused by logger and same record is given to all sinks of level,
+     * so sink may move position of buffer, but must not change its content. Content is valid only during this call.
+     *
+     * @param level log level of record
+     * @param record encoded record
+     * @throws IOException when record cannot be written
+     */
+    void write(LogLevel level, ByteBuffer record) throws IOException;
+
+    /**
+     * Writes out everything sink keeps in its buffers
+     *
+     * @throws IOException when buffered records cannot be written
+     */
+    void flush() throws IOException;
+
+    /**
+     * Writes out everything sink keeps in its buffers and forces it to storage device.
+     * Sinks, which have no storage device, just flush.
+     *
+     * @throws IOException when buffered records cannot be written or forced
+     */
+    default void sync() throws IOException {
+        flush();
+    }
+
+    /**
+     * Flushes sink and releases its resources
+     *
+     * @throws IOException when sink cannot be closed properly
+     */
+    void close() throws IOException;
+}
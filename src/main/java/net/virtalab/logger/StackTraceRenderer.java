@@ -0,0 +1,191 @@
+package net.virtalab.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes stacktraces straight into record buffer, in same format as {@link Throwable#printStackTrace()},
+ * without StringWriter and its copies.
+ * <br>
+ * Instance of renderer also remembers shapes of printed traces (exception types and frames of whole chain).
+ * Trace, which was printed before, is replaced with short "same trace as #id" reference,
+ * so storm of same exceptions doesn't flood output.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class StackTraceRenderer {
+    private static final String CAUSE_CAPTION = "Caused by: ";
+    private static final String SUPPRESSED_CAPTION = "Suppressed: ";
+
+    /**
+     * Max number of remembered traces. Traces above limit are always printed in full.
+     */
+    private static final int MAX_REMEMBERED = 1024;
+
+    //shape marks: structure of chain, they can't be equal to class name or frame
+    private static final Integer SUPPRESSED = 1;
+    private static final Integer CAUSE = 2;
+    private static final Integer CIRCULAR = 3;
+    private static final Integer END = 4;
+
+    /**
+     * Ids of printed traces by their shape. Shape is compared in full, so different traces never share id
+     */
+    private final ConcurrentMap<List<Object>, Integer> remembered = new ConcurrentHashMap<List<Object>, Integer>();
+    /**
+     * Id of latest remembered trace, guarded by this
+     */
+    private int lastId;
+
+    /**
+     * Appends trace or reference to same trace printed before.
+     * First printed trace gets line with its id: "\t... trace #id".
+     *
+     * @param t throwable with its stacktrace
+     * @param sb builder to append to
+     */
+    void append(Throwable t, StringBuilder sb){
+        List<Object> shape = shape(t);
+        Integer id = remembered.get(shape);
+        if(id!=null){
+            sb.append(t).append(" (same trace as #").append(id.intValue()).append(')').append(Log.NEWLINE);
+            return;
+        }
+        render(t, sb);
+        int newId = 0;
+        synchronized (this){
+            //new traces are rare, lock keeps ids without gaps
+            if(remembered.size() < MAX_REMEMBERED && !remembered.containsKey(shape)){
+                newId = ++lastId;
+                remembered.put(shape, newId);
+            }
+        }
+        if(newId!=0){
+            sb.append("\t... trace #").append(newId).append(Log.NEWLINE);
+        }
+    }
+
+    /**
+     * Collects exception types and frames of throwable, its suppressed ones and causes with marks of their places in chain.
+     * Messages are not part of shape.
+     *
+     * @param t throwable
+     * @return shape of trace
+     */
+    private static List<Object> shape(Throwable t){
+        List<Object> shape = new ArrayList<Object>();
+        shape(t, shape, Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>()));
+        return shape;
+    }
+
+    private static void shape(Throwable t, List<Object> shape, Set<Throwable> seen){
+        if(!seen.add(t)){
+            shape.add(CIRCULAR);
+            return;
+        }
+        shape.add(t.getClass().getName());
+        Collections.addAll(shape, t.getStackTrace());
+        for(Throwable suppressed : t.getSuppressed()){
+            shape.add(SUPPRESSED);
+            shape(suppressed, shape, seen);
+        }
+        Throwable cause = t.getCause();
+        if(cause!=null){
+            shape.add(CAUSE);
+            shape(cause, shape, seen);
+        }
+        shape.add(END);
+    }
+
+    /**
+     * Computes fingerprint of trace: exception types and frames of throwable, its causes and suppressed ones.
+     * Messages are not part of fingerprint.
+     *
+     * @param t throwable
+     * @return fingerprint
+     */
+    static long fingerprint(Throwable t){
+        return fingerprint(t, 1125899906842597L, Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>()));
+    }
+
+    private static long fingerprint(Throwable t, long h, Set<Throwable> seen){
+        if(!seen.add(t)){
+            return h * 31;
+        }
+        h = 31*h + t.getClass().getName().hashCode();
+        for(StackTraceElement frame : t.getStackTrace()){
+            h = 31*h + frame.hashCode();
+        }
+        for(Throwable suppressed : t.getSuppressed()){
+            h = fingerprint(suppressed, 31*h + 1, seen);
+        }
+        Throwable cause = t.getCause();
+        if(cause!=null){
+            h = fingerprint(cause, 31*h + 2, seen);
+        }
+        return h;
+    }
+
+    /**
+     * Appends trace in format of {@link Throwable#printStackTrace()}
+     *
+     * @param t throwable with its stacktrace
+     * @param sb builder to append to
+     */
+    static void render(Throwable t, StringBuilder sb){
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<Throwable, Boolean>());
+        seen.add(t);
+        sb.append(t).append(Log.NEWLINE);
+        StackTraceElement[] trace = t.getStackTrace();
+        for(StackTraceElement frame : trace){
+            sb.append("\tat ").append(frame).append(Log.NEWLINE);
+        }
+        for(Throwable suppressed : t.getSuppressed()){
+            renderEnclosed(suppressed, trace, SUPPRESSED_CAPTION, "\t", seen, sb);
+        }
+        Throwable cause = t.getCause();
+        if(cause!=null){
+            renderEnclosed(cause, trace, CAUSE_CAPTION, "", seen, sb);
+        }
+    }
+
+    /**
+     * Appends trace of cause or suppressed throwable. Frames in common with enclosing trace are shown as "... n more".
+     */
+    private static void renderEnclosed(Throwable t, StackTraceElement[] enclosingTrace, String caption, String prefix,
+                                       Set<Throwable> seen, StringBuilder sb){
+        if(!seen.add(t)){
+            sb.append(prefix).append(caption).append("[CIRCULAR REFERENCE: ").append(t).append(']').append(Log.NEWLINE);
+            return;
+        }
+        StackTraceElement[] trace = t.getStackTrace();
+        int m = trace.length - 1;
+        int n = enclosingTrace.length - 1;
+        while(m>=0 && n>=0 && trace[m].equals(enclosingTrace[n])){
+            m--;
+            n--;
+        }
+        int framesInCommon = trace.length - 1 - m;
+
+        sb.append(prefix).append(caption).append(t).append(Log.NEWLINE);
+        for(int i=0;i<=m;i++){
+            sb.append(prefix).append("\tat ").append(trace[i]).append(Log.NEWLINE);
+        }
+        if(framesInCommon!=0){
+            sb.append(prefix).append("\t... ").append(framesInCommon).append(" more").append(Log.NEWLINE);
+        }
+        for(Throwable suppressed : t.getSuppressed()){
+            renderEnclosed(suppressed, trace, SUPPRESSED_CAPTION, prefix + "\t", seen, sb);
+        }
+        Throwable cause = t.getCause();
+        if(cause!=null){
+            renderEnclosed(cause, trace, CAUSE_CAPTION, prefix, seen, sb);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package net.virtalab.logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Caller resolver for Java 9+. Walks only frames it needs and caches short name for every caller class.
+ * <br>
+ * Library is built for Java 8, so StackWalker is reached through method handles, found once at class loading.
+ * Handles are static final, so JIT calls them as directly as normal methods.
+ * Used only when {@link #isAvailable()}, see {@link CallerResolver#get()}.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class StackWalkerCallerResolver extends CallerResolver {
+    /**
+     * Empty name marks logger classes
+     */
+    private static final String LOGGER_CLASS = "";
+
+    //StackWalker instance and its methods, NULL on Java 8
+    private static final Object WALKER;
+    private static final MethodHandle WALK;
+    private static final MethodHandle DECLARING_CLASS;
+    private static final MethodHandle CLASS_NAME;
+    private static final MethodHandle METHOD_NAME;
+    private static final MethodHandle LINE_NUMBER;
+
+    static {
+        Object walker = null;
+        MethodHandle walk = null;
+        MethodHandle declaringClass = null;
+        MethodHandle className = null;
+        MethodHandle methodName = null;
+        MethodHandle lineNumber = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            Object retainClassReference = optionClass.getField("RETAIN_CLASS_REFERENCE").get(null);
+            walker = lookup.findStatic(walkerClass, "getInstance", MethodType.methodType(walkerClass, optionClass))
+                    .invoke(retainClassReference);
+            walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class))
+                    .asType(MethodType.methodType(Object.class, Object.class, Function.class));
+            declaringClass = lookup.findVirtual(frameClass, "getDeclaringClass", MethodType.methodType(Class.class))
+                    .asType(MethodType.methodType(Class.class, Object.class));
+            className = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            methodName = lookup.findVirtual(frameClass, "getMethodName", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+            lineNumber = lookup.findVirtual(frameClass, "getLineNumber", MethodType.methodType(int.class))
+                    .asType(MethodType.methodType(int.class, Object.class));
+        } catch (Throwable t){
+            //Java 8: no StackWalker
+            walker = null;
+        }
+        WALKER = walker;
+        WALK = walk;
+        DECLARING_CLASS = declaringClass;
+        CLASS_NAME = className;
+        METHOD_NAME = methodName;
+        LINE_NUMBER = lineNumber;
+    }
+
+    private final ClassValue<String> names = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String className = type.getName();
+            return isLoggerClass(className) ? LOGGER_CLASS : shortName(className);
+        }
+    };
+
+    private final Function<Stream<?>, String> firstCaller = new Function<Stream<?>, String>() {
+        @Override
+        public String apply(Stream<?> frames) {
+            //stream is lazy: frames behind the first caller are never materialized
+            Iterator<?> it = frames.iterator();
+            while(it.hasNext()){
+                String name = names.get(declaringClass(it.next()));
+                if(name!=LOGGER_CLASS){
+                    return name;
+                }
+            }
+            return null;
+        }
+    };
+
+    private final Function<Stream<?>, Object> firstCallerFrame = new Function<Stream<?>, Object>() {
+        @Override
+        public Object apply(Stream<?> frames) {
+            Iterator<?> it = frames.iterator();
+            while(it.hasNext()){
+                Object frame = it.next();
+                if(names.get(declaringClass(frame))!=LOGGER_CLASS){
+                    return frame;
+                }
+            }
+            return null;
+        }
+    };
+
+    /**
+     * Tells if running JVM has StackWalker
+     *
+     * @return true on Java 9+
+     */
+    static boolean isAvailable(){
+        return WALKER!=null;
+    }
+
+    @Override
+    String findCallerClassName(){
+        return (String) walk(firstCaller);
+    }
+
+    @Override
+    boolean findCallSite(CallSite site){
+        Object frame = walk(firstCallerFrame);
+        if(frame==null){ return false; }
+        try {
+            //names kept by frame and its class, nothing is built here
+            site.set((String) CLASS_NAME.invokeExact(frame), (String) METHOD_NAME.invokeExact(frame),
+                    (int) LINE_NUMBER.invokeExact(frame), names.get(declaringClass(frame)));
+            return true;
+        } catch (Throwable t){
+            return false;
+        }
+    }
+
+    private static Object walk(Function<Stream<?>, ?> function){
+        try {
+            return WALK.invokeExact(WALKER, (Function) function);
+        } catch (Throwable t){
+            return null;
+        }
+    }
+
+    private static Class<?> declaringClass(Object frame){
+        try {
+            return (Class<?>) DECLARING_CLASS.invokeExact(frame);
+        } catch (Throwable t){
+            return Object.class;
+        }
+    }
+}
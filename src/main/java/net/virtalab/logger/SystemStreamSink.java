@@ -0,0 +1,44 @@
+package net.virtalab.logger;
+
+import java.io.PrintStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Sink, which writes records to {@link System#out} or {@link System#err}, taken at moment of writing.
+ * So streams replaced by {@link System#setOut(PrintStream)} are used without reconfiguration.
+ * Records are written as UTF-8 bytes, whatever charset stream has.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class SystemStreamSink implements Sink {
+    private final boolean err;
+
+    SystemStreamSink(boolean err){
+        this.err = err;
+    }
+
+    private PrintStream stream(){
+        return err ? System.err : System.out;
+    }
+
+    @Override
+    public void write(LogLevel level, ByteBuffer record){
+        PrintStream stream = stream();
+        stream.write(record.array(), record.arrayOffset() + record.position(), record.remaining());
+        stream.flush();
+        ((Buffer) record).position(record.limit());
+    }
+
+    @Override
+    public void flush(){
+        stream().flush();
+    }
+
+    @Override
+    public void close(){
+        //streams belong to JVM
+        flush();
+    }
+}
@@ -0,0 +1,77 @@
+package net.virtalab.logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Log levels set for concrete tags, like "db" or "db.pool".
+ * <br>
+ * Tag without own level takes level of its closest parent ("db.pool.stats" takes level of "db.pool", then "db"),
+ * tag without any takes global level. Resolved priority is cached in small direct-mapped table indexed by hash of tag,
+ * so checking tag, which was seen before, is array read and reference compare (hash of String is cached by String itself).
+ * <br>
+ * Object is part of configuration snapshot, so it is never changed, only its cache is filled.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class TagLevels {
+    private static final int CACHE_SIZE = 256;
+    private static final char SEPARATOR = '.';
+
+    private final Map<String, LogLevel> levels;
+    private final int globalPriority;
+
+    /**
+     * Entries are immutable, so racy writes by several threads are harmless: worst case is repeated resolving
+     */
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    TagLevels(Map<String, LogLevel> levels, LogLevel globalLevel){
+        this.levels = new HashMap<String, LogLevel>(levels);
+        this.globalPriority = globalLevel.priority;
+    }
+
+    /**
+     * Provides priority of level, which applies to tag
+     *
+     * @param tag tag of record, may be null
+     * @return priority of tag level or global one
+     */
+    int priorityOf(String tag){
+        if(tag==null){ return globalPriority; }
+        int idx = tag.hashCode() & (CACHE_SIZE - 1);
+        Entry e = cache[idx];
+        if(e!=null && (e.tag==tag || e.tag.equals(tag))){
+            return e.priority;
+        }
+        int priority = resolve(tag);
+        cache[idx] = new Entry(tag, priority);
+        return priority;
+    }
+
+    private int resolve(String tag){
+        String current = tag;
+        while(true){
+            LogLevel level = levels.get(current);
+            if(level!=null){
+                return level.priority;
+            }
+            int dot = current.lastIndexOf(SEPARATOR);
+            if(dot<=0){
+                return globalPriority;
+            }
+            current = current.substring(0, dot);
+        }
+    }
+
+    private static final class Entry {
+        private final String tag;
+        private final int priority;
+
+        private Entry(String tag, int priority){
+            this.tag = tag;
+            this.priority = priority;
+        }
+    }
+}
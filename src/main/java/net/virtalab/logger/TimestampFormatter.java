@@ -0,0 +1,158 @@
+package net.virtalab.logger;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Renders timestamps in {@link SimpleDateFormat} format without creating formatter for every record.
+ * <br>
+ * Format is parsed once. Everything, but milliseconds, is rendered once per second and cached,
+ * for records within same second only milliseconds are patched in.
+ * Cache is immutable object behind volatile reference, so formatter is safe to use from many threads without lock.
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class TimestampFormatter {
+    /**
+     * Means that format has more than one milliseconds field, so only whole timestamp can be cached
+     */
+    private static final int NO_PATCHING = -1;
+
+    private final String pattern;
+    private final String prefixPattern;
+    private final String suffixPattern;
+    private final int millisDigits;
+
+    private volatile Cached cached;
+
+    /**
+     * Parses format
+     *
+     * @param pattern format as SimpleDateFormat requires
+     * @throws IllegalArgumentException if pattern is not valid SimpleDateFormat pattern
+     */
+    TimestampFormatter(String pattern){
+        //validates pattern
+        new SimpleDateFormat(pattern);
+        this.pattern = pattern;
+
+        int runStart = -1;
+        int runLength = 0;
+        int runs = 0;
+        boolean quoted = false;
+        for(int i=0;i<pattern.length();i++){
+            char c = pattern.charAt(i);
+            if(c=='\''){
+                quoted = !quoted;
+            } else if(c=='S' && !quoted){
+                if(i==0 || pattern.charAt(i-1)!='S'){
+                    runs++;
+                    runStart = i;
+                    runLength = 0;
+                }
+                runLength++;
+            }
+        }
+
+        if(runs==1){
+            this.prefixPattern = pattern.substring(0, runStart);
+            this.suffixPattern = pattern.substring(runStart+runLength);
+            this.millisDigits = runLength;
+        } else if(runs==0){
+            this.prefixPattern = pattern;
+            this.suffixPattern = "";
+            this.millisDigits = 0;
+        } else {
+            this.prefixPattern = pattern;
+            this.suffixPattern = "";
+            this.millisDigits = NO_PATCHING;
+        }
+    }
+
+    /**
+     * Provides format this formatter was created with
+     *
+     * @return pattern as SimpleDateFormat requires
+     */
+    String getPattern(){
+        return pattern;
+    }
+
+    /**
+     * Formats given moment
+     *
+     * @param timestamp moment in millis
+     * @return string with timestamp
+     */
+    String format(long timestamp){
+        StringBuilder sb = new StringBuilder(32);
+        formatTo(timestamp, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends formatted moment to given builder
+     *
+     * @param timestamp moment in millis
+     * @param sb builder to append to
+     */
+    void formatTo(long timestamp, StringBuilder sb){
+        long key = millisDigits==NO_PATCHING ? timestamp : Math.floorDiv(timestamp, 1000L);
+        Cached c = cached;
+        if(c==null || c.key!=key){
+            c = render(key, timestamp);
+            cached = c;
+        }
+        sb.append(c.prefix);
+        if(millisDigits>0){
+            int millis = (int) (timestamp - key*1000);
+            appendPadded(millis, millisDigits, sb);
+        }
+        sb.append(c.suffix);
+    }
+
+    /**
+     * Renders parts of timestamp which are same within cache key
+     *
+     * @param key second (or milli if no patching possible)
+     * @param timestamp moment in millis
+     * @return new cache entry
+     */
+    private Cached render(long key, long timestamp){
+        Date moment = new Date(timestamp);
+        String prefix = new SimpleDateFormat(prefixPattern).format(moment);
+        String suffix = suffixPattern.isEmpty() ? "" : new SimpleDateFormat(suffixPattern).format(moment);
+        return new Cached(key, prefix, suffix);
+    }
+
+    /**
+     * Appends number, padded with zeros the same way SimpleDateFormat does
+     *
+     * @param value non-negative number less than 1000
+     * @param digits minimal number of digits
+     * @param sb builder to append to
+     */
+    private static void appendPadded(int value, int digits, StringBuilder sb){
+        int length = value>=100 ? 3 : (value>=10 ? 2 : 1);
+        for(int i=length;i<digits;i++){
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    /**
+     * Rendered parts of timestamp valid for single second
+     */
+    private static final class Cached {
+        private final long key;
+        private final String prefix;
+        private final String suffix;
+
+        private Cached(long key, String prefix, String suffix){
+            this.key = key;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.virtalab.logger;
+
+/**
+ * UTF-8 encoding without {@link java.nio.charset.CharsetEncoder} and intermediate objects
+ *
+ * @author Alexander Muravya
+ * @since 1.7
+ */
+final class Utf8 {
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private Utf8(){
+    }
+
+    /**
+     * Encodes chars to UTF-8. Destination must have room for 3 bytes per char.
+     * Broken surrogate pairs are replaced by '?'
+     *
+     * @param src chars
+     * @param from index of first char to encode
+     * @param to index after last char to encode
+     * @param dst destination
+     * @param pos position in destination to start from
+     * @return position in destination after last written byte
+     */
+    static int encode(CharSequence src, int from, int to, byte[] dst, int pos){
+        for(int i=from;i<to;i++){
+            char ch = src.charAt(i);
+            if(ch<0x80){
+                dst[pos++] = (byte) ch;
+            } else if(ch<0x800){
+                dst[pos++] = (byte) (0xC0 | (ch >> 6));
+                dst[pos++] = (byte) (0x80 | (ch & 0x3F));
+            } else if(Character.isSurrogate(ch)){
+                if(Character.isHighSurrogate(ch) && i+1<to && Character.isLowSurrogate(src.charAt(i+1))){
+                    int cp = Character.toCodePoint(ch, src.charAt(++i));
+                    dst[pos++] = (byte) (0xF0 | (cp >> 18));
+                    dst[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    dst[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    dst[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    dst[pos++] = REPLACEMENT;
+                }
+            } else {
+                dst[pos++] = (byte) (0xE0 | (ch >> 12));
+                dst[pos++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                dst[pos++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,155 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Color;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.LogStats;
+import net.virtalab.logger.Sink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests of async mode
+ */
+public class AsyncLogTest {
+    private static final String TAG = "ASYNC";
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.noTime();
+        Log.changeStreamForLevel(LogLevel.INFO, new PrintStream(out, true));
+    }
+
+    @Test
+    public void recordsAreFlushedOnDisable(){
+        Log.enableAsync(4);
+        for(int i=0;i<100;i++){
+            Log.i(TAG, "message "+i);
+        }
+        Log.disableAsync();
+
+        String[] lines = out.toString().split(Log.NEWLINE);
+        Assert.assertEquals(100, lines.length);
+        String expectedLine = Color.GREEN+"I AsyncLogTest "+TAG+" message 99"+Color.RESET;
+        Assert.assertEquals(expectedLine, lines[99]);
+    }
+
+    @Test
+    public void perThreadOrderIsKept() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 500;
+        Log.noClassName();
+        Log.enableAsync(16);
+
+        Thread[] workers = new Thread[threads];
+        for(int t=0;t<threads;t++){
+            final String tag = "T"+t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i=0;i<perThread;i++){
+                        Log.i(tag, String.valueOf(i));
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for(Thread worker : workers){
+            worker.join();
+        }
+        Log.disableAsync();
+
+        int[] next = new int[threads];
+        String[] lines = out.toString().split(Log.NEWLINE);
+        Assert.assertEquals(threads*perThread, lines.length);
+        for(String line : lines){
+            String[] parts = line.replace(Color.RESET, "").split(" ");
+            int thread = Integer.parseInt(parts[1].substring(1));
+            int number = Integer.parseInt(parts[2]);
+            Assert.assertEquals(next[thread], number);
+            next[thread]++;
+        }
+    }
+
+    @Test
+    public void argumentsOfCallerAreNotChanged(){
+        Log.noClassName();
+        Log.enableAsync();
+        StringBuilder state = new StringBuilder("before");
+        Object[] args = {state};
+        Log.i(TAG, "state={}", args);
+        state.setLength(0);
+        state.append("after");
+        Log.disableAsync();
+        Assert.assertSame(state, args[0]);
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" state=before"+Color.RESET+Log.NEWLINE, out.toString());
+    }
+
+    @Test
+    public void interruptedCallerKeepsOrder(){
+        Log.noClassName();
+        Log.enableAsync(4);
+        for(int i=0;i<100;i++){
+            if(i%2==0){
+                Thread.currentThread().interrupt();
+            }
+            Log.i(TAG, String.valueOf(i));
+            if(i%2==0){
+                Assert.assertTrue(Thread.interrupted());
+            }
+        }
+        Log.disableAsync();
+
+        String[] lines = out.toString().split(Log.NEWLINE);
+        Assert.assertEquals(100, lines.length);
+        for(int i=0;i<lines.length;i++){
+            Assert.assertEquals(Color.GREEN+"I "+TAG+" "+i+Color.RESET, lines[i]);
+        }
+    }
+
+    @Test
+    public void failureOfWriterIsCountedAsSinkError(){
+        Sink broken = new Sink() {
+            @Override
+            public void write(LogLevel level, ByteBuffer record){
+                throw new IllegalStateException("broken sink");
+            }
+
+            @Override
+            public void flush(){
+            }
+
+            @Override
+            public void close(){
+            }
+        };
+        Log.changeSinkForLevel(LogLevel.WARN, broken);
+        Log.enableMetrics();
+        Log.enableAsync();
+        Log.w(TAG, "first");
+        Log.w(TAG, "second");
+        Log.disableAsync();
+        long errors = -1;
+        for(LogStats.SinkStats sink : Log.getStats().getSinks()){
+            if(sink.getSink()==broken){
+                errors = sink.getErrors();
+            }
+        }
+        Assert.assertEquals(2, errors);
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,201 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.BinaryLogDecoder;
+import net.virtalab.logger.ChannelSink;
+import net.virtalab.logger.FlushPolicy;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Tests of binary log and its decoder
+ */
+public class BinaryLogTest {
+    private static final String TAG = "BINARY";
+    private static final String TIME = "'time'";
+    private static final Exception FAILURE = new IllegalStateException("boom", new RuntimeException("cause"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setTimestampFormat(TIME);
+    }
+
+    @Test
+    public void decodedLogIsSameAsTextLog() throws IOException {
+        RingSink ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+        Log.setLayout(BinaryLogDecoder.LAYOUT + "%ex");
+        logEverything();
+        StringBuilder text = new StringBuilder();
+        for(String record : ring.getRecords()){
+            text.append(record);
+        }
+
+        File file = folder.newFile("binary.vlbl");
+        Log.enableBinaryLog(file);
+        logEverything();
+        Log.flush();
+
+        Assert.assertEquals(text.toString(), decode(file));
+    }
+
+    @Test
+    public void binaryLogIsSmallerThanText() throws IOException {
+        File textFile = folder.newFile("text.log");
+        ChannelSink sink = new ChannelSink(textFile, false);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+        for(int i=0;i<1000;i++){
+            Log.i(TAG, "request {} took {} ms, status={}", i, i*3L, "OK");
+        }
+        Log.flush();
+        sink.close();
+
+        File binaryFile = folder.newFile("binary.vlbl");
+        Log.enableBinaryLog(binaryFile);
+        for(int i=0;i<1000;i++){
+            Log.i(TAG, "request {} took {} ms, status={}", i, i*3L, "OK");
+        }
+        Log.disableBinaryLog();
+
+        Assert.assertTrue(binaryFile.length() * 4 < textFile.length());
+    }
+
+    @Test
+    public void stringsAtBlockBoundaryAreKept() throws IOException {
+        //block grows only once, so every log gets one chance: shift first block end by padding
+        for(int offset=0;offset<32;offset++){
+            File file = folder.newFile("boundary" + offset + ".vlbl");
+            Log.enableBinaryLog(file);
+            StringBuilder padding = new StringBuilder();
+            for(int j=0;j<offset;j++){
+                padding.append('p');
+            }
+            Log.i(TAG, "{}", padding.toString());
+            //about 10 bytes per record, so 8000 records cross 64K block
+            for(int i=0;i<8000;i++){
+                Log.i(TAG, "{}", "X");
+            }
+            Log.disableBinaryLog();
+
+            String[] lines = decode(file).split(Log.NEWLINE);
+            Assert.assertEquals(8001, lines.length);
+            for(int i=1;i<lines.length;i++){
+                Assert.assertTrue(lines[i], lines[i].endsWith(" " + TAG + " X"));
+            }
+        }
+    }
+
+    @Test
+    public void errorIsWrittenAtOnceWithGroupCommit() throws IOException {
+        File file = folder.newFile("durable.vlbl");
+        Log.enableBinaryLog(file);
+        Log.enableGroupCommit(new FlushPolicy(1000, 0, true));
+        Log.i(TAG, "context");
+        Log.e(TAG, "failure");
+        String[] lines = decode(file).split(Log.NEWLINE);
+        Assert.assertEquals(2, lines.length);
+        Assert.assertTrue(lines[1], lines[1].endsWith(TAG + " failure"));
+    }
+
+    @Test
+    public void blockIsWrittenAfterDelay() throws IOException, InterruptedException {
+        File file = folder.newFile("delayed.vlbl");
+        Log.enableBinaryLog(file);
+        Log.i(TAG, "waiting");
+        long deadline = System.currentTimeMillis() + 5000;
+        while(decode(file).isEmpty() && System.currentTimeMillis() < deadline){
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(decode(file).endsWith(TAG + " waiting" + Log.NEWLINE));
+    }
+
+    @Test
+    public void asyncBatchesShareBlock() throws IOException, InterruptedException {
+        File file = folder.newFile("async.vlbl");
+        Log.enableBinaryLog(file);
+        Log.enableAsync();
+        long headerSize = file.length();
+        for(int i=0;i<5;i++){
+            //queue gets empty between records, so every record is own batch
+            Log.i(TAG, "record {}", i);
+            Thread.sleep(20);
+        }
+        Assert.assertEquals(headerSize, file.length());
+        Log.disableAsync();
+        Log.flush();
+        Assert.assertEquals(5, decode(file).split(Log.NEWLINE).length);
+    }
+
+    @Test
+    public void damagedBlockIsSkipped() throws IOException {
+        File file = folder.newFile("damaged.vlbl");
+        Log.enableBinaryLog(file);
+        Log.i(TAG, "first block");
+        Log.flush();
+        Log.i(TAG, "second block");
+        Log.disableBinaryLog();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        //header is 5 bytes, block header 8 bytes, last byte of first block payload is damaged
+        int firstBlockLength = ((bytes[5] & 0xFF) << 24) | ((bytes[6] & 0xFF) << 16) | ((bytes[7] & 0xFF) << 8) | (bytes[8] & 0xFF);
+        bytes[5 + 8 + firstBlockLength - 1] ^= 0x55;
+
+        String decoded = decode(new ByteArrayInputStream(bytes));
+        String[] lines = decoded.split(Log.NEWLINE);
+        Assert.assertEquals(2, lines.length);
+        Assert.assertTrue(lines[0].startsWith("# damaged block"));
+        Assert.assertTrue(lines[1].endsWith(TAG+" second block"));
+    }
+
+    private static void logEverything(){
+        Log.i(TAG, "plain message");
+        Log.d("no tag message");
+        Log.w(TAG, "ints={} {} longs={} doubles={} {}", 42, (short) -7, -123456789012L, 3.5, 1.25f);
+        Log.e(TAG, "null={} bool={} char={} array={} object={}", null, true, 'x', new int[]{1, 2}, Arrays.asList("a", "b"));
+        Log.t(TAG, "ünïcödé {}", "välue");
+        Log.e(TAG, "failure", FAILURE);
+        Log.wtf(TAG, "terrible");
+        Log.i(TAG, "missing {} and {}", "one");
+    }
+
+    private static String decode(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return decode(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        StringBuilder out = new StringBuilder();
+        new BinaryLogDecoder(TIME).decode(in, out);
+        return out.toString();
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
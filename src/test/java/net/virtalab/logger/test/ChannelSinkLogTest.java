@@ -0,0 +1,83 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.ChannelSink;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Tests of channel sink
+ */
+public class ChannelSinkLogTest {
+    private static final String TAG = "CHANNEL";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%letter %tag %msg");
+    }
+
+    @Test
+    public void autoFlushWritesEveryRecord() throws IOException {
+        File file = folder.newFile("auto.log");
+        ChannelSink sink = new ChannelSink(file);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        Log.i(TAG, "first");
+        Assert.assertEquals("I "+TAG+" first"+Log.NEWLINE, read(file));
+        sink.close();
+    }
+
+    @Test
+    public void bufferedRecordsAreWrittenOnFlush() throws IOException {
+        File file = folder.newFile("buffered.log");
+        ChannelSink sink = new ChannelSink(file, false);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        Log.i(TAG, "first");
+        Log.i(TAG, "second");
+        Assert.assertEquals("", read(file));
+
+        Log.flush();
+        Assert.assertEquals("I "+TAG+" first"+Log.NEWLINE+"I "+TAG+" second"+Log.NEWLINE, read(file));
+        sink.close();
+    }
+
+    @Test
+    public void recordBiggerThanBuffer() throws IOException {
+        File file = folder.newFile("big.log");
+        ChannelSink sink = new ChannelSink(file, false);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        StringBuilder big = new StringBuilder();
+        while(big.length() <= ChannelSink.defaultBufferSize){
+            big.append("0123456789");
+        }
+        Log.i(TAG, "small");
+        Log.i(TAG, big.toString());
+        Assert.assertEquals("I "+TAG+" small"+Log.NEWLINE+"I "+TAG+" "+big+Log.NEWLINE, read(file));
+        sink.close();
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,93 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of diagnostic context (MDC)
+ */
+public class ContextLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setLayout("%letter %mdc %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void contextIsPrinted(){
+        Log.putContext("req", "42");
+        Log.putContext("user", "bob");
+        Log.i("tag", "message");
+        Assert.assertEquals("I req=42 user=bob tag message"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void emptyContextLeavesNoSpace(){
+        Log.i("tag", "message");
+        Assert.assertEquals("I tag message"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void putReplacesAndRemoveDrops(){
+        Log.putContext("req", "1");
+        Log.putContext("user", "bob");
+        Log.putContext("req", "2");
+        Log.removeContext("user");
+        Assert.assertEquals("2", Log.getContext("req"));
+        Assert.assertNull(Log.getContext("user"));
+        Log.putContext("req", null);
+        Log.i("tag", "message");
+        Assert.assertEquals("I tag message"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void contextBelongsToThread() throws InterruptedException {
+        Log.putContext("req", "42");
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Log.i("tag", "other");
+            }
+        });
+        other.start();
+        other.join();
+        Assert.assertEquals("I tag other"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void asyncRecordKeepsContextOfLoggingTime(){
+        Log.enableAsync();
+        Log.putContext("req", "1");
+        Log.i("tag", "first");
+        Log.putContext("req", "2");
+        Log.disableAsync();
+        Assert.assertEquals("I req=1 tag first"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void jsonHasContextField(){
+        Log.enableJsonLayout();
+        Log.noTime();
+        Log.putContext("req", "4\"2");
+        Log.i("tag", "message");
+        Assert.assertTrue(ring.getRecords().get(0).contains(",\"context\":{\"req\":\"4\\\"2\"}}"));
+    }
+
+    @After
+    public void cleanLog(){
+        Log.clearContext();
+        Log.reset();
+    }
+}
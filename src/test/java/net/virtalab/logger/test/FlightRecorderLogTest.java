@@ -0,0 +1,119 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests of flight recorder, which keeps records below log level
+ */
+public class FlightRecorderLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.WARN);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void recordsArePrintedBeforeError(){
+        Log.enableFlightRecorder(10);
+        Log.d("db", "connecting to {}", "db1");
+        Log.i("db", "connected");
+        Log.w("db", "slow query");
+        Assert.assertEquals(Collections.singletonList("W db slow query"+Log.NEWLINE), ring.getRecords());
+        Log.e("db", "connection lost");
+        Assert.assertEquals(Arrays.asList(
+                "W db slow query"+Log.NEWLINE,
+                "D db connecting to db1"+Log.NEWLINE,
+                "I db connected"+Log.NEWLINE,
+                "E db connection lost"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void onlyLastRecordsAreKept(){
+        Log.enableFlightRecorder(2);
+        Log.t("x", "1");
+        Log.t("x", "2");
+        Log.t("x", "3");
+        Log.wtf("x", "boom");
+        Assert.assertEquals(Arrays.asList(
+                "T x 2"+Log.NEWLINE,
+                "T x 3"+Log.NEWLINE,
+                "WTF x boom"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void recordedWtfKeepsItsLetter(){
+        Log.enableFlightRecorder(10);
+        Log.setLevelForTag("quiet", LogLevel.OFF);
+        Log.wtf("quiet", "boom");
+        Log.dumpFlightRecorder();
+        Assert.assertEquals(Collections.singletonList("WTF quiet boom"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void recordsArePrintedOnce(){
+        Log.enableFlightRecorder(10);
+        Log.d("x", "context");
+        Log.e("x", "first");
+        Log.e("x", "second");
+        Assert.assertEquals(3, ring.getRecords().size());
+    }
+
+    @Test
+    public void dumpOnDemand(){
+        Log.enableFlightRecorder(10);
+        Log.i("x", "context");
+        Log.dumpFlightRecorder();
+        Assert.assertEquals(Collections.singletonList("I x context"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void argumentsAreCapturedAtLoggingTime(){
+        Log.enableFlightRecorder(10);
+        StringBuilder state = new StringBuilder("before");
+        Log.d("x", "state={}", state);
+        state.setLength(0);
+        state.append("after");
+        Log.dumpFlightRecorder();
+        Assert.assertEquals("D x state=before"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void asyncKeepsOrder(){
+        Log.enableFlightRecorder(10);
+        Log.enableAsync();
+        Log.d("x", "context");
+        Log.e("x", "failure");
+        Log.disableAsync();
+        Assert.assertEquals(Arrays.asList(
+                "D x context"+Log.NEWLINE,
+                "E x failure"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void disabledRecorderKeepsNothing(){
+        Log.d("x", "context");
+        Log.e("x", "failure");
+        Assert.assertEquals(Collections.singletonList("E x failure"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,163 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.Sink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests of garbage-free mode
+ */
+public class GarbageFreeLogTest {
+    private static final String TAG = "GC-FREE";
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%letter %tag %msg");
+        Log.enableGarbageFree();
+        Log.changeStreamForLevel(LogLevel.INFO, new PrintStream(out, true));
+    }
+
+    @Test
+    public void recordsAreEncodedToUtf8() throws UnsupportedEncodingException {
+        String message = "Привет, € and 😀";
+        Log.i(TAG, message);
+        Log.i(TAG, "n={}", 2);
+        String expected = "I "+TAG+" "+message+Log.NEWLINE+"I "+TAG+" n=2"+Log.NEWLINE;
+        Assert.assertEquals(expected, out.toString("UTF-8"));
+    }
+
+    @Test
+    public void loggingFromToStringOfArgument(){
+        Object nested = new Object(){
+            @Override
+            public String toString() {
+                Log.i(TAG, "inner");
+                return "outer";
+            }
+        };
+        Log.i(TAG, "value={}", nested);
+        String expected = "I "+TAG+" inner"+Log.NEWLINE+"I "+TAG+" value=outer"+Log.NEWLINE;
+        Assert.assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void pooledObjectsInAsyncMode(){
+        Log.enableAsync(8);
+        for(int i=0;i<1000;i++){
+            Log.i(TAG, "n={}", i);
+        }
+        Log.disableAsync();
+        String[] lines = out.toString().split(Log.NEWLINE);
+        Assert.assertEquals(1000, lines.length);
+        for(int i=0;i<lines.length;i++){
+            Assert.assertEquals("I "+TAG+" n="+i, lines[i]);
+        }
+    }
+
+    @Test
+    public void steadyStateAllocatesNothing(){
+        ThreadMXBean threads = allocationCounter();
+
+        //%class needs stack walk, which allocates, so it is not part of garbage-free layout
+        Log.setLayout("%letter %time %tag %msg");
+        Log.changeSinkForLevel(LogLevel.INFO, new NullSink());
+        //varargs array is made by caller, so it is made once here
+        Object[] args = {42, 7L, true};
+        for(int i=0;i<100000;i++){
+            logRecords(args);
+        }
+        long threadId = Thread.currentThread().getId();
+        //timestamp prefix is rebuilt once per second, so best of few rounds is taken
+        long allocated = Long.MAX_VALUE;
+        for(int round=0;round<5;round++){
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for(int i=0;i<10000;i++){
+                logRecords(args);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        //few bytes may come from measurement itself, but not per record
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void steadyStateOfAsyncModeAllocatesNothing() throws InterruptedException {
+        ThreadMXBean threads = allocationCounter();
+
+        Log.setLayout("%letter %time %tag %msg");
+        Log.changeSinkForLevel(LogLevel.INFO, new NullSink());
+        Log.enableAsync();
+        Object[] args = {42, 7L, true};
+        //batches are smaller than queue, so caller never waits for writer and pool has free objects
+        for(int round=0;round<200;round++){
+            for(int i=0;i<200;i++){
+                logRecords(args);
+            }
+            Thread.sleep(2);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        for(int round=0;round<5;round++){
+            Thread.sleep(20);
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for(int i=0;i<200;i++){
+                logRecords(args);
+            }
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static ThreadMXBean allocationCounter(){
+        Object bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof ThreadMXBean);
+        ThreadMXBean threads = (ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static void logRecords(Object[] args){
+        Log.i(TAG, "plain message");
+        Log.i(TAG, "int={} long={} flag={}", args);
+    }
+
+    /**
+     * Sink, which drops everything without allocating
+     */
+    private static final class NullSink implements Sink {
+        @Override
+        public void write(LogLevel level, ByteBuffer record){
+            record.position(record.limit());
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
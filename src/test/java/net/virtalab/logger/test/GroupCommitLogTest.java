@@ -0,0 +1,126 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.ChannelSink;
+import net.virtalab.logger.FlushPolicy;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Tests of flushing by {@link FlushPolicy}
+ */
+public class GroupCommitLogTest {
+    private static final String TAG = "COMMIT";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private ChannelSink sink;
+
+    @Before
+    public void init() throws IOException {
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setLayout("%letter %tag %msg");
+        file = folder.newFile("commit.log");
+        sink = new ChannelSink(file, false);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, sink);
+        }
+    }
+
+    @Test
+    public void batchIsFlushedAfterMaxRecords() throws IOException {
+        Log.enableGroupCommit(new FlushPolicy(3, 0, false));
+
+        Log.d(TAG, "1");
+        Log.d(TAG, "2");
+        Assert.assertEquals("", read());
+
+        Log.d(TAG, "3");
+        Assert.assertEquals(3, read().split(Log.NEWLINE).length);
+    }
+
+    @Test
+    public void errorIsFlushedAtOnceWithEverythingBefore() throws IOException {
+        Log.enableGroupCommit(new FlushPolicy(100, 0, true));
+
+        Log.d(TAG, "debug");
+        Log.e(TAG, "error");
+        Assert.assertEquals("D "+TAG+" debug"+Log.NEWLINE+"E "+TAG+" error"+Log.NEWLINE, read());
+    }
+
+    @Test
+    public void durableLevelsCanBeChanged() throws IOException {
+        Log.enableGroupCommit(new FlushPolicy(100, 0, false).durableFor(LogLevel.WARN));
+
+        Log.e(TAG, "error");
+        Assert.assertEquals("", read());
+
+        Log.w(TAG, "warn");
+        Assert.assertEquals(2, read().split(Log.NEWLINE).length);
+
+        Log.wtf(TAG, "wtf");
+        Assert.assertEquals(3, read().split(Log.NEWLINE).length);
+    }
+
+    @Test
+    public void batchIsFlushedAfterMaxDelay() throws Exception {
+        Log.enableGroupCommit(new FlushPolicy(100, 20, false));
+
+        Log.d(TAG, "late");
+        long deadline = System.currentTimeMillis() + 5000;
+        while(read().isEmpty() && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("D "+TAG+" late"+Log.NEWLINE, read());
+    }
+
+    @Test
+    public void delayIsCountedFromFirstPendingRecord() throws Exception {
+        Log.enableGroupCommit(new FlushPolicy(100, 300, false));
+        //idle time must not count: record waits for its own delay
+        Thread.sleep(400);
+        Log.d(TAG, "first");
+        Log.d(TAG, "second");
+        Assert.assertEquals("", read());
+
+        long started = System.currentTimeMillis();
+        while(read().isEmpty() && System.currentTimeMillis() - started < 5000){
+            Thread.sleep(5);
+        }
+        long waited = System.currentTimeMillis() - started;
+        Assert.assertEquals(2, read().split(Log.NEWLINE).length);
+        //about one delay, not two
+        Assert.assertTrue("waited " + waited + " ms", waited < 550);
+    }
+
+    @Test
+    public void disableFlushesPendingRecords() throws IOException {
+        Log.enableGroupCommit(new FlushPolicy(100, 0, false));
+
+        Log.d(TAG, "pending");
+        Log.disableGroupCommit();
+        Assert.assertEquals("D "+TAG+" pending"+Log.NEWLINE, read());
+    }
+
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+
+    @After
+    public void cleanLog() throws IOException {
+        Log.reset();
+        sink.close();
+    }
+}
@@ -0,0 +1,84 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of JSON layout
+ */
+public class JsonLayoutTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.noTime();
+        Log.enableJsonLayout();
+        ring = new RingSink(10);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void recordIsJsonObject(){
+        Log.i("db", "user={} connected", "bob");
+        String thread = Thread.currentThread().getName();
+        Assert.assertEquals("{\"level\":\"INFO\",\"thread\":\""+thread+"\",\"class\":\"JsonLayoutTest\",\"tag\":\"db\","
+                +"\"message\":\"user=bob connected\"}"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void stringsAreEscaped(){
+        Log.noClassName();
+        Log.w("q\"uote", "line1\nline2\t\\ \u0001 \u2028");
+        String thread = Thread.currentThread().getName();
+        Assert.assertEquals("{\"level\":\"WARN\",\"thread\":\""+thread+"\",\"tag\":\"q\\\"uote\","
+                +"\"message\":\"line1\\nline2\\t\\\\ \\u0001 \\u2028\"}"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void escapesAtEdgesAreKept(){
+        Log.noClassName();
+        Log.w("tag", "\"quoted\"\n");
+        Assert.assertTrue(ring.getRecords().get(0).endsWith("\"message\":\"\\\"quoted\\\"\\n\"}"+Log.NEWLINE));
+    }
+
+    @Test
+    public void exceptionIsSingleLine(){
+        Log.wtf("tag", "failure", new IllegalStateException("boom"));
+        String record = ring.getRecords().get(0);
+        Assert.assertTrue(record.contains("\"wtf\":true"));
+        Assert.assertTrue(record.contains("\"exception\":\"java.lang.IllegalStateException: boom"+escapedNewline()+"\\tat "));
+        Assert.assertEquals(1, record.split(Log.NEWLINE).length);
+    }
+
+    @Test
+    public void timestampIsNumber(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.enableJsonLayout();
+        Log.changeSinkForLevel(LogLevel.INFO, ring);
+        long before = System.currentTimeMillis();
+        Log.i("tag", "message");
+        String record = ring.getRecords().get(0);
+        Assert.assertTrue(record.startsWith("{\"timestamp\":"));
+        long timestamp = Long.parseLong(record.substring("{\"timestamp\":".length(), record.indexOf(',')));
+        Assert.assertTrue(timestamp >= before);
+    }
+
+    private static String escapedNewline(){
+        return Log.NEWLINE.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,77 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Color;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Tests of custom layouts
+ */
+public class LayoutLogTest {
+    private static final String TAG = "LAYOUT";
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.changeStreamForLevel(LogLevel.ERROR, new PrintStream(out, true));
+    }
+
+    @Test
+    public void customLayout(){
+        Log.setLayout("[%letter] %tag: %msg 100%%");
+        Log.e(TAG, "message");
+        Assert.assertEquals("[E] "+TAG+": message 100%", firstLine());
+    }
+
+    @Test
+    public void disabledPartsAreDropped(){
+        Log.setLayout("%color%letter %time %class %tag %msg%reset");
+        Log.noTime();
+        Log.noTag();
+        Log.e(TAG, "message");
+        Assert.assertEquals(Color.RED+"E LayoutLogTest message"+Color.RESET, firstLine());
+    }
+
+    @Test
+    public void wtfLetter(){
+        Log.setLayout("%letter %msg");
+        Log.wtf(TAG, "terrible");
+        Assert.assertEquals("WTF terrible", firstLine());
+    }
+
+    @Test
+    public void wtfWithNullIsIgnored(){
+        Log.wtf(TAG, (String) null);
+        Log.wtf((String) null);
+        Log.wtf(TAG, null, (Throwable) null);
+        Log.wtf(TAG, (Throwable) null);
+        Log.wtf((Throwable) null);
+        Assert.assertEquals("", out.toString());
+    }
+
+    @Test
+    public void emptyTagIsSkippedWithItsSpace(){
+        Log.setLayout("%tag %msg");
+        Log.e("", "message");
+        Assert.assertEquals("message", firstLine());
+    }
+
+    private String firstLine(){
+        return out.toString().split(Log.NEWLINE)[0];
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,74 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that level guard follows every configuration change at once
+ */
+public class LevelSwitchLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void levelChangedByOtherThreadIsSeen() throws InterruptedException {
+        //let JIT compile disabled call
+        for(int i=0;i<100000;i++){
+            Log.t("x", "disabled");
+        }
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Log.updateCurrentLogLevel(LogLevel.TRACE);
+            }
+        });
+        other.start();
+        other.join();
+        Log.t("x", "enabled");
+        Assert.assertEquals(1, ring.getRecords().size());
+        Log.updateCurrentLogLevel(LogLevel.ERROR);
+        Log.w("x", "disabled");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @Test
+    public void tagLevelEnablesLevel(){
+        Log.d("x", "disabled");
+        Log.setLevelForTag("db", LogLevel.DEBUG);
+        Log.d("x", "disabled");
+        Log.d("db", "enabled");
+        Assert.assertEquals(1, ring.getRecords().size());
+        Log.removeLevelForTag("db");
+        Log.d("db", "disabled");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @Test
+    public void offLevelStillFeedsFlightRecorder(){
+        Log.updateCurrentLogLevel(LogLevel.OFF);
+        Log.enableFlightRecorder();
+        Log.t("x", "kept");
+        Log.dumpFlightRecorder();
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,127 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.LogLimit;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests of rate limits and sampling
+ */
+public class LimitLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void tagIsLimitedByTokenBucket(){
+        Log.limitTag("hot", LogLimit.perSecond(1, 3));
+        for(int i=0;i<10;i++){
+            Log.e("hot", "failure");
+        }
+        Log.e("cold", "failure");
+        Assert.assertEquals(4, ring.getRecords().size());
+    }
+
+    @Test
+    public void levelIsSampled(){
+        Log.limitLevel(LogLevel.DEBUG, LogLimit.sample(5));
+        for(int i=0;i<10;i++){
+            Log.d("any", "message "+i);
+        }
+        List<String> records = ring.getRecords();
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("D any message 0"+Log.NEWLINE, records.get(0));
+        Assert.assertEquals("D any message 5"+Log.NEWLINE, records.get(1));
+    }
+
+    @Test
+    public void everyCallSiteHasOwnLimit(){
+        Log.limitCallSites(LogLimit.perSecond(1, 1));
+        for(int i=0;i<5;i++){
+            Log.i("first site");
+            Log.i("second site");
+        }
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @Test
+    public void recordDroppedByLevelKeepsTokenOfTag(){
+        Log.limitTag("hot", LogLimit.perSecond(1, 2));
+        Log.limitLevel(LogLevel.INFO, LogLimit.sample(2));
+        for(int i=0;i<3;i++){
+            Log.i("hot", "message "+i);
+        }
+        List<String> records = ring.getRecords();
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("I hot message 2"+Log.NEWLINE, records.get(1));
+    }
+
+    @Test
+    public void reportOfCallSiteNamesItsClass() throws InterruptedException {
+        Log.setLayout("%letter %class %msg");
+        Log.limitCallSites(LogLimit.sample(10));
+        for(int i=0;i<2;i++){
+            Log.i("message");
+        }
+        //same as background reporter
+        Thread reporter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Log.reportSuppressed();
+            }
+        });
+        reporter.start();
+        reporter.join();
+        List<String> records = ring.getRecords();
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("I LimitLogTest message"+Log.NEWLINE, records.get(0));
+        Assert.assertTrue(records.get(1), records.get(1).startsWith("W LimitLogTest Suppressed 1 records"));
+    }
+
+    @Test
+    public void suppressedRecordsAreReported(){
+        Log.limitTag("hot", LogLimit.sample(10));
+        for(int i=0;i<10;i++){
+            Log.i("hot", "failure");
+        }
+        Log.reportSuppressed();
+        List<String> records = ring.getRecords();
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals("W Suppressed 9 records above limit 1 of 10 of tag hot"+Log.NEWLINE, records.get(1));
+
+        //counter starts from zero after report
+        Log.reportSuppressed();
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @Test
+    public void removedLimitsAllowEverything(){
+        Log.limitTag("hot", LogLimit.sample(10));
+        Log.removeLimits();
+        for(int i=0;i<10;i++){
+            Log.i("hot", "failure");
+        }
+        Assert.assertEquals(10, ring.getRecords().size());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,55 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Color;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.Logger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Tests of Logger registry
+ */
+public class LoggerRegistryTest {
+    private final ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+
+    @Before
+    public void init(){
+        Logger.init(LogLevel.INFO);
+        System.setOut(new PrintStream(stdOut));
+    }
+
+    @Test
+    public void samePrefixGivesSameLogger(){
+        Assert.assertSame(Logger.getLogger("Registry"), Logger.getLogger("Registry"));
+        Assert.assertNotSame(Logger.getLogger("Registry"), Logger.getLogger("Other"));
+    }
+
+    @Test
+    public void nullAndEmptyPrefixGiveSameLogger(){
+        Assert.assertSame(Logger.getLogger(null), Logger.getLogger(""));
+    }
+
+    @Test
+    public void streamIsTakenAtMomentOfWriting() throws Exception {
+        Logger log = Logger.getLogger("Registry");
+        ByteArrayOutputStream replaced = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(replaced));
+
+        log.info("ünïcode");
+        String expectedLine = "["+ Color.WHITE+"Registry"+Color.RESET+"] ("+Color.WHITE+"INFO"+Color.RESET+") ünïcode";
+        Assert.assertEquals(expectedLine, new String(replaced.toByteArray(), "UTF-8").trim());
+        Assert.assertEquals(0, stdOut.size());
+    }
+
+    @After
+    public void cleanLog(){
+        System.setOut(originalOut);
+        Logger.resetLogLevel();
+    }
+}
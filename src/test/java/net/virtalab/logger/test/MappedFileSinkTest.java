@@ -0,0 +1,113 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.MappedFileSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests of memory-mapped sink
+ */
+public class MappedFileSinkTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%tag %msg");
+    }
+
+    @Test
+    public void recordsOfManyThreadsAreKeptWhole() throws Exception {
+        File file = new File(folder.getRoot(), "mapped.log");
+        final MappedFileSink sink = new MappedFileSink(file, 4096);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        final int threads = 8;
+        final int records = 2000;
+        List<Thread> writers = new ArrayList<Thread>();
+        for(int t=0;t<threads;t++){
+            final String tag = "T" + t;
+            Thread writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i=0;i<records;i++){
+                        Log.i(tag, "record " + i);
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for(Thread writer : writers){
+            writer.join();
+        }
+        sink.close();
+
+        Set<String> lines = new HashSet<String>();
+        for(File segment : segments(file)){
+            Assert.assertTrue(segment.length() <= 4096);
+            String content = new String(Files.readAllBytes(segment.toPath()), "UTF-8");
+            Assert.assertEquals(-1, content.indexOf('\0'));
+            Assert.assertTrue(content.endsWith(Log.NEWLINE));
+            for(String line : content.split(Log.NEWLINE)){
+                Assert.assertTrue(line, line.matches("T\\d record \\d+"));
+                lines.add(line);
+            }
+        }
+        Assert.assertEquals(threads * records, lines.size());
+    }
+
+    @Test
+    public void newSinkContinuesNumbering() throws IOException {
+        File file = new File(folder.getRoot(), "numbered.log");
+        MappedFileSink first = new MappedFileSink(file, 1024);
+        first.close();
+        MappedFileSink second = new MappedFileSink(file, 1024);
+        second.close();
+        Assert.assertTrue(new File(file.getPath() + ".1").exists());
+        Assert.assertTrue(new File(file.getPath() + ".2").exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void recordBiggerThanSegmentIsRejected() throws IOException {
+        MappedFileSink sink = new MappedFileSink(new File(folder.getRoot(), "small.log"), 8);
+        try {
+            sink.write(LogLevel.INFO, ByteBuffer.wrap(new byte[9]));
+        } finally {
+            sink.close();
+        }
+    }
+
+    private static List<File> segments(File file){
+        List<File> segments = new ArrayList<File>();
+        for(int i=1;;i++){
+            File segment = new File(file.getPath() + "." + i);
+            if(!segment.exists()){
+                return segments;
+            }
+            segments.add(segment);
+        }
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,173 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.LogLimit;
+import net.virtalab.logger.LogStats;
+import net.virtalab.logger.RingSink;
+import net.virtalab.logger.Sink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests of logger metrics
+ */
+public class MetricsLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void recordsAndBytesAreCountedPerLevel(){
+        Log.enableMetrics();
+        Log.i("tag", "one");
+        Log.i("tag", "two");
+        Log.e("tag", "three");
+        LogStats stats = Log.getStats();
+        Assert.assertEquals(2, stats.getRecords(LogLevel.INFO));
+        Assert.assertEquals(1, stats.getRecords(LogLevel.ERROR));
+        Assert.assertEquals(0, stats.getRecords(LogLevel.DEBUG));
+        Assert.assertEquals(("E tag three"+Log.NEWLINE).length(), stats.getBytes(LogLevel.ERROR));
+        Assert.assertEquals(3, stats.getFormatTime().getCount());
+        Assert.assertEquals(3, stats.getWriteTime().getCount());
+    }
+
+    @Test
+    public void sinkErrorsAreCounted(){
+        Sink broken = new Sink() {
+            @Override
+            public void write(LogLevel level, ByteBuffer record) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush(){
+            }
+
+            @Override
+            public void close(){
+            }
+        };
+        Log.addSinkForLevel(LogLevel.WARN, broken);
+        Log.enableMetrics();
+        Log.w("tag", "message");
+        long errors = -1;
+        long written = -1;
+        for(LogStats.SinkStats sink : Log.getStats().getSinks()){
+            if(sink.getSink()==broken){
+                errors = sink.getErrors();
+            } else if(sink.getSink()==ring){
+                written = sink.getRecords();
+            }
+        }
+        Assert.assertEquals(1, errors);
+        Assert.assertEquals(1, written);
+    }
+
+    @Test
+    public void scopeBlockIsCountedInEncodedBytes() throws UnsupportedEncodingException {
+        Log.enableMetrics();
+        Log.beginScope();
+        Log.w("tag", "привет");
+        Log.w("tag", "мир");
+        Log.endScope(true);
+        LogStats stats = Log.getStats();
+        String block = "W tag привет"+Log.NEWLINE+"W tag мир"+Log.NEWLINE;
+        Assert.assertEquals(2, stats.getRecords(LogLevel.WARN));
+        Assert.assertEquals(block.getBytes("UTF-8").length, stats.getBytes(LogLevel.WARN));
+        for(LogStats.SinkStats sink : stats.getSinks()){
+            if(sink.getSink()==ring){
+                Assert.assertEquals(2, sink.getRecords());
+            }
+        }
+    }
+
+    @Test
+    public void binaryRecordsStayOutOfHistograms() throws IOException {
+        File file = File.createTempFile("metrics", ".vlbl");
+        try {
+            Log.enableBinaryLog(file);
+            Log.enableMetrics();
+            Log.i("tag", "one");
+            LogStats stats = Log.getStats();
+            Assert.assertEquals(1, stats.getRecords(LogLevel.INFO));
+            Assert.assertTrue(stats.getBytes(LogLevel.INFO) > 0);
+            Assert.assertEquals(0, stats.getFormatTime().getCount());
+            Assert.assertEquals(0, stats.getWriteTime().getCount());
+        } finally {
+            Log.disableBinaryLog();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void limitedAndRepeatedAreCounted(){
+        Log.limitTag("noisy", LogLimit.perSecond(1));
+        Log.enableRepeatSuppression();
+        Log.enableMetrics();
+        Log.d("noisy", "first");
+        Log.d("noisy", "second");
+        Log.i("tag", "same");
+        Log.i("tag", "same");
+        LogStats stats = Log.getStats();
+        Assert.assertEquals(1, stats.getLimited(LogLevel.DEBUG));
+        Assert.assertEquals(1, stats.getRepeated(LogLevel.INFO));
+    }
+
+    @Test
+    public void queueWaitIsMeasuredInAsyncMode(){
+        Log.enableMetrics();
+        Log.enableAsync();
+        Log.i("tag", "message");
+        Log.disableAsync();
+        LogStats stats = Log.getStats();
+        Assert.assertEquals(1, stats.getQueueWait().getCount());
+        Assert.assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    public void disabledMetricsAreZero(){
+        Log.i("tag", "message");
+        Assert.assertEquals(0, Log.getStats().getRecords(LogLevel.INFO));
+    }
+
+    @Test
+    public void metricsAreAvailableThroughJmx() throws Exception {
+        Log.enableMetrics();
+        Log.i("tag", "message");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("net.virtalab.logger:type=Log");
+        Assert.assertTrue(server.isRegistered(name));
+        //maps are open data tables in JMX
+        TabularData records = (TabularData) server.getAttribute(name, "Records");
+        Assert.assertEquals(1L, records.get(new Object[]{"INFO"}).get("value"));
+        Assert.assertEquals(0, server.getAttribute(name, "QueueDepth"));
+        Log.disableMetrics();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,88 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.ChannelSink;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Tests of several sinks for one level
+ */
+public class MultipleSinksLogTest {
+    private static final String TAG = "MULTI";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%letter %tag %msg");
+    }
+
+    @Test
+    public void allSinksGetSameRecord() throws IOException {
+        File file = folder.newFile("multi.log");
+        ChannelSink fileSink = new ChannelSink(file);
+        RingSink ring = new RingSink(10);
+        Log.changeSinkForLevel(LogLevel.INFO, fileSink);
+        Log.addSinkForLevel(LogLevel.INFO, ring);
+
+        Log.i(TAG, "first");
+        String line = "I "+TAG+" first"+Log.NEWLINE;
+        Assert.assertEquals(line, new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+        Assert.assertEquals(Arrays.asList(line), ring.getRecords());
+        fileSink.close();
+    }
+
+    @Test
+    public void sameSinkIsAddedOnce(){
+        RingSink ring = new RingSink(10);
+        Log.changeSinkForLevel(LogLevel.INFO, ring);
+        Log.addSinkForLevel(LogLevel.INFO, ring);
+
+        Log.i(TAG, "once");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @Test
+    public void removedSinkGetsNothing(){
+        RingSink kept = new RingSink(10);
+        RingSink removed = new RingSink(10);
+        Log.changeSinkForLevel(LogLevel.INFO, kept);
+        Log.addSinkForLevel(LogLevel.INFO, removed);
+        Log.removeSinkForLevel(LogLevel.INFO, removed);
+
+        Log.i(TAG, "message");
+        Assert.assertEquals(1, kept.getRecords().size());
+        Assert.assertEquals(0, removed.getRecords().size());
+    }
+
+    @Test
+    public void ringKeepsNewestRecords(){
+        RingSink ring = new RingSink(2);
+        Log.changeSinkForLevel(LogLevel.INFO, ring);
+
+        Log.i(TAG, "1");
+        Log.i(TAG, "2");
+        Log.i(TAG, "3");
+        Assert.assertEquals(Arrays.asList("I "+TAG+" 2"+Log.NEWLINE, "I "+TAG+" 3"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
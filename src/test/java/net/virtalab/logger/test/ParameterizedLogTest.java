@@ -0,0 +1,83 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Color;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.function.Supplier;
+
+/**
+ * Tests of messages with placeholders and lazy messages
+ */
+public class ParameterizedLogTest {
+    private static final String TAG = "PARAMS";
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.noTime();
+        Log.noClassName();
+        Log.changeStreamForLevel(LogLevel.INFO, new PrintStream(out, true));
+    }
+
+    @Test
+    public void placeholdersAreReplaced(){
+        Log.i(TAG, "user={} took={}ms", "john", 42);
+        String expectedLine = Color.GREEN+"I "+TAG+" user=john took=42ms"+Color.RESET;
+        Assert.assertEquals(expectedLine, out.toString().split(Log.NEWLINE)[0]);
+    }
+
+    @Test
+    public void missingAndExtraArguments(){
+        Log.i(TAG, "a={} b={}", 1);
+        Log.i(TAG, "a={}", 1, 2);
+        Log.i(TAG, "array={}", (Object) new int[]{1, 2});
+        String[] lines = out.toString().split(Log.NEWLINE);
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" a=1 b={}"+Color.RESET, lines[0]);
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" a=1"+Color.RESET, lines[1]);
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" array=[1, 2]"+Color.RESET, lines[2]);
+    }
+
+    @Test
+    public void supplierIsNotCalledForDisabledLevel(){
+        final int[] calls = new int[1];
+        Supplier<String> message = new Supplier<String>() {
+            @Override
+            public String get() {
+                calls[0]++;
+                return "lazy";
+            }
+        };
+        Log.d(TAG, message);
+        Assert.assertEquals(0, calls[0]);
+
+        Log.i(TAG, message);
+        Assert.assertEquals(1, calls[0]);
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" lazy"+Color.RESET, out.toString().split(Log.NEWLINE)[0]);
+    }
+
+    @Test
+    public void argumentsAreCapturedInAsyncMode(){
+        Log.enableAsync();
+        StringBuilder mutable = new StringBuilder("before");
+        Log.i(TAG, "value={}", mutable);
+        mutable.setLength(0);
+        mutable.append("after");
+        Log.disableAsync();
+        Assert.assertEquals(Color.GREEN+"I "+TAG+" value=before"+Color.RESET, out.toString().split(Log.NEWLINE)[0]);
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,114 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests of "Last message repeated N times"
+ */
+public class RepeatSuppressionLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.TRACE);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void runIsCollapsedOnChange(){
+        Log.enableRepeatSuppression();
+        for(int i=0;i<5;i++){
+            Log.w("health", "check failed");
+        }
+        Log.i("health", "check passed");
+        Assert.assertEquals(Arrays.asList(
+                "W health check failed"+Log.NEWLINE,
+                "W health Last message repeated 4 times"+Log.NEWLINE,
+                "I health check passed"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void templatesAreComparedByResult(){
+        Log.enableRepeatSuppression();
+        Log.i("tag", "value={}", 1);
+        Log.i("tag", "value={}", 1);
+        Log.i("tag", "value={}", 2);
+        Assert.assertEquals(Arrays.asList(
+                "I tag value=1"+Log.NEWLINE,
+                "I tag Last message repeated 1 times"+Log.NEWLINE,
+                "I tag value=2"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void changedArgumentIsNotRepeat(){
+        Log.enableRepeatSuppression();
+        StringBuilder value = new StringBuilder("a");
+        Log.i("tag", "value={}", value);
+        value.append("b");
+        Log.i("tag", "value={}", value);
+        Assert.assertEquals(Arrays.asList(
+                "I tag value=a"+Log.NEWLINE,
+                "I tag value=ab"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void runOfTagIsNotBrokenByOtherTag(){
+        Log.enableRepeatSuppression();
+        Log.i("a", "same");
+        Log.i("b", "other");
+        Log.i("a", "same");
+        Log.i("a", "next");
+        Assert.assertEquals(Arrays.asList(
+                "I a same"+Log.NEWLINE,
+                "I b other"+Log.NEWLINE,
+                "I a Last message repeated 1 times"+Log.NEWLINE,
+                "I a next"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void differentTagsAreNotRepeats(){
+        Log.enableRepeatSuppression();
+        Log.i("a", "same");
+        Log.i("b", "same");
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @Test
+    public void pendingRunIsPrintedAfterTimeout() throws InterruptedException {
+        Log.enableRepeatSuppression(20);
+        Log.e("db", "down");
+        Log.e("db", "down");
+        long deadline = System.currentTimeMillis() + 5000;
+        while(ring.getRecords().size()<2 && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("E db Last message repeated 1 times"+Log.NEWLINE, ring.getRecords().get(1));
+    }
+
+    @Test
+    public void disablePrintsPendingRun(){
+        Log.enableRepeatSuppression();
+        Log.d("x", "same");
+        Log.d("x", "same");
+        Log.disableRepeatSuppression();
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
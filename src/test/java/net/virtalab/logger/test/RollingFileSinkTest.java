@@ -0,0 +1,175 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RollingFileSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests of rolling file sink
+ */
+public class RollingFileSinkTest {
+    private static final String TAG = "ROLLING";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%tag %msg");
+    }
+
+    @Test
+    public void failedRotationKeepsWriting() throws IOException {
+        //rotated name gets time suffix and becomes too long for file system, so rename fails
+        StringBuilder name = new StringBuilder();
+        for(int i=0;i<245;i++){
+            name.append('a');
+        }
+        File file = new File(folder.getRoot(), name.toString());
+        long lineSize = (TAG + " 00" + Log.NEWLINE).length();
+        RollingFileSink sink = new RollingFileSink(file, lineSize * 2, 3);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        StringBuilder expected = new StringBuilder();
+        for(int i=0;i<5;i++){
+            String message = String.format("%02d", i);
+            Log.i(TAG, message);
+            expected.append(TAG).append(' ').append(message).append(Log.NEWLINE);
+        }
+        sink.close();
+
+        Assert.assertEquals(expected.toString(), new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+    }
+
+    @Test
+    public void rotationBySizeKeepsOnlyNewestArchives() throws IOException {
+        File file = new File(folder.getRoot(), "app.log");
+        //every line is "ROLLING nn" + separator, so two lines fit into file
+        long lineSize = (TAG + " 00" + Log.NEWLINE).length();
+        RollingFileSink sink = new RollingFileSink(file, lineSize * 2, 3);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        for(int i=0;i<10;i++){
+            Log.i(TAG, String.format("%02d", i));
+        }
+        sink.close();
+
+        File[] archives = folder.getRoot().listFiles();
+        int archiveCount = 0;
+        for(File archive : archives){
+            if(archive.getName().endsWith(RollingFileSink.ARCHIVE_SUFFIX)){
+                archiveCount++;
+                Assert.assertEquals(2, readGzipped(archive).split(Log.NEWLINE).length);
+            }
+        }
+        Assert.assertEquals(3, archiveCount);
+        Assert.assertEquals(TAG+" 08"+Log.NEWLINE+TAG+" 09"+Log.NEWLINE, new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+    }
+
+    @Test
+    public void manyRotationsInSameSecondKeepNewestArchives() throws IOException {
+        File file = new File(folder.getRoot(), "fast.log");
+        long lineSize = (TAG + " 00" + Log.NEWLINE).length();
+        RollingFileSink sink = new RollingFileSink(file, lineSize * 2, 3);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        //more than 9 rotations, so archives of same second get numbers above 9
+        for(int i=0;i<30;i++){
+            Log.i(TAG, String.format("%02d", i));
+        }
+        sink.close();
+
+        List<String> names = new ArrayList<String>();
+        for(File archive : folder.getRoot().listFiles()){
+            if(archive.getName().endsWith(RollingFileSink.ARCHIVE_SUFFIX)){
+                names.add(archive.getName());
+            }
+        }
+        Assert.assertEquals(3, names.size());
+        List<String> lines = new ArrayList<String>();
+        for(String name : names){
+            lines.addAll(Arrays.asList(readGzipped(new File(folder.getRoot(), name)).split(Log.NEWLINE)));
+        }
+        Collections.sort(lines);
+        Assert.assertEquals(Arrays.asList(TAG+" 22", TAG+" 23", TAG+" 24", TAG+" 25", TAG+" 26", TAG+" 27"), lines);
+    }
+
+    @Test
+    public void fileIsReopenedAfterFailedReopen() throws IOException {
+        File dir = folder.newFolder("logs");
+        File file = new File(dir, "app.log");
+        RollingFileSink sink = new RollingFileSink(file, 0, 5);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+        Log.i(TAG, "before");
+
+        //without directory file cannot be opened again after rotation
+        Assert.assertTrue(file.delete());
+        Assert.assertTrue(dir.delete());
+        try {
+            sink.rotate();
+            Assert.fail("rotation must fail");
+        } catch (IOException e){
+            //expected
+        }
+        Assert.assertTrue(dir.mkdir());
+        Log.i(TAG, "after");
+        sink.close();
+
+        Assert.assertEquals(TAG+" after"+Log.NEWLINE, new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+    }
+
+    @Test
+    public void manualRotation() throws IOException {
+        File file = new File(folder.getRoot(), "manual.log");
+        RollingFileSink sink = new RollingFileSink(file, 0, 5);
+        Log.changeSinkForLevel(LogLevel.INFO, sink);
+
+        Log.i(TAG, "before");
+        sink.rotate();
+        Log.i(TAG, "after");
+        sink.close();
+
+        File[] archives = folder.getRoot().listFiles();
+        Assert.assertEquals(2, archives.length);
+        Assert.assertEquals(TAG+" after"+Log.NEWLINE, new String(Files.readAllBytes(file.toPath()), "UTF-8"));
+    }
+
+    private static String readGzipped(File archive) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(archive)), "UTF-8"));
+        try {
+            StringBuilder sb = new StringBuilder();
+            String line;
+            while((line = reader.readLine())!=null){
+                sb.append(line).append(Log.NEWLINE);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,126 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests of scoped records, which are printed only if scope fails
+ */
+public class ScopeLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.DEBUG);
+        Log.setLayout("%letter %tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void successfulScopeIsDropped(){
+        Log.beginScope();
+        Log.d("req", "parsing");
+        Log.i("req", "done");
+        Log.endScope(false);
+        Assert.assertEquals(0, ring.getRecords().size());
+    }
+
+    @Test
+    public void failedScopeIsPrintedAsOneBlock(){
+        Log.beginScope();
+        Log.d("req", "parsing {}", 42);
+        Log.w("req", "slow");
+        Log.endScope(true);
+        //whole block is single write
+        List<String> records = ring.getRecords();
+        Assert.assertEquals(Collections.singletonList(
+                "D req parsing 42"+Log.NEWLINE+"W req slow"+Log.NEWLINE), records);
+    }
+
+    @Test
+    public void errorFailsScope(){
+        Log.beginScope();
+        Log.i("req", "started");
+        Log.e("req", "failed");
+        Assert.assertEquals(Collections.singletonList(
+                "I req started"+Log.NEWLINE+"E req failed"+Log.NEWLINE), ring.getRecords());
+        Log.i("req", "cleanup");
+        Log.endScope(false);
+        Assert.assertEquals("I req cleanup"+Log.NEWLINE, ring.getRecords().get(1));
+    }
+
+    @Test
+    public void nestedScopeBelongsToOuter(){
+        Log.beginScope();
+        Log.i("outer", "a");
+        Log.beginScope();
+        Log.i("inner", "b");
+        Log.endScope(true);
+        Assert.assertEquals(0, ring.getRecords().size());
+        Log.endScope(false);
+        Assert.assertEquals(Collections.singletonList(
+                "I outer a"+Log.NEWLINE+"I inner b"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void oldestRecordsAreDroppedWhenScopeIsFull(){
+        Log.beginScope(2);
+        Log.i("x", "1");
+        Log.i("x", "2");
+        Log.i("x", "3");
+        Log.endScope(true);
+        Assert.assertEquals(Collections.singletonList("I x 2"+Log.NEWLINE+"I x 3"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void otherThreadsAreNotScoped() throws InterruptedException {
+        Log.beginScope();
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Log.i("other", "printed");
+            }
+        });
+        other.start();
+        other.join();
+        Log.endScope(false);
+        Assert.assertEquals(Arrays.asList("I other printed"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void asyncScope(){
+        Log.enableAsync();
+        Log.beginScope();
+        Log.i("req", "a");
+        Log.i("req", "b");
+        Log.endScope(true);
+        Log.disableAsync();
+        Assert.assertEquals(Collections.singletonList("I req a"+Log.NEWLINE+"I req b"+Log.NEWLINE), ring.getRecords());
+    }
+
+    @Test
+    public void endWithoutBeginDoesNothing(){
+        Log.endScope(true);
+        Log.i("x", "printed");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.endScope(false);
+        Log.reset();
+    }
+}
@@ -0,0 +1,95 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Tests of stacktrace rendering
+ */
+public class StackTraceLogTest {
+    private static final String TAG = "TRACE";
+
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%msg%ex");
+        ring = new RingSink(10);
+        Log.changeSinkForLevel(LogLevel.ERROR, ring);
+    }
+
+    @Test
+    public void traceIsSameAsPrintStackTrace(){
+        Exception cause = new IllegalArgumentException("cause");
+        Exception e = new IllegalStateException("boom", cause);
+        e.addSuppressed(new RuntimeException("suppressed"));
+
+        Log.e(TAG, "failed", e);
+        Assert.assertEquals("failed"+Log.NEWLINE+printed(e)+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void tracesWithSameHashAreNotMixed(){
+        Log.enableStackTraceDedup();
+        //"Aa" and "BB" have same hash code, so frames have same hash code as well
+        Exception first = new IllegalStateException("first");
+        first.setStackTrace(new StackTraceElement[]{ new StackTraceElement("Aa", "run", "Aa.java", 1) });
+        Exception second = new IllegalStateException("second");
+        second.setStackTrace(new StackTraceElement[]{ new StackTraceElement("BB", "run", "BB.java", 1) });
+        Assert.assertEquals(first.getStackTrace()[0].hashCode(), second.getStackTrace()[0].hashCode());
+
+        Log.e(TAG, "failed", first);
+        Log.e(TAG, "failed", second);
+        List<String> records = ring.getRecords();
+        Assert.assertTrue(records.get(0).endsWith("\t... trace #1"+Log.NEWLINE+Log.NEWLINE));
+        Assert.assertTrue(records.get(1), records.get(1).contains("\tat BB.run(BB.java:1)"));
+        Assert.assertTrue(records.get(1).endsWith("\t... trace #2"+Log.NEWLINE+Log.NEWLINE));
+    }
+
+    @Test
+    public void repeatedTraceIsPrintedAsReference(){
+        Log.enableStackTraceDedup();
+        for(int i=0;i<2;i++){
+            Log.e(TAG, "failed", newException("attempt "+i));
+        }
+        List<String> records = ring.getRecords();
+        Assert.assertTrue(records.get(0).contains("\tat "));
+        Assert.assertTrue(records.get(0).endsWith("\t... trace #1"+Log.NEWLINE+Log.NEWLINE));
+        Assert.assertEquals("failed"+Log.NEWLINE+"java.lang.IllegalStateException: attempt 1 (same trace as #1)"+Log.NEWLINE+Log.NEWLINE,
+                records.get(1));
+    }
+
+    @Test
+    public void differentTracesArePrintedInFull(){
+        Log.enableStackTraceDedup();
+        Log.e(TAG, "failed", newException("first"));
+        Log.e(TAG, "failed", new IllegalArgumentException("other"));
+        Assert.assertTrue(ring.getRecords().get(1).contains("\tat "));
+    }
+
+    private static Exception newException(String message){
+        return new IllegalStateException(message);
+    }
+
+    private static String printed(Throwable t){
+        StringWriter sw = new StringWriter();
+        t.printStackTrace(new PrintWriter(sw));
+        return sw.toString();
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
@@ -0,0 +1,83 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import net.virtalab.logger.RingSink;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of log levels set for tags
+ */
+public class TagLevelLogTest {
+    private RingSink ring;
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.setLayout("%tag %msg");
+        ring = new RingSink(100);
+        for(LogLevel level : LogLevel.values()){
+            Log.changeSinkForLevel(level, ring);
+        }
+    }
+
+    @Test
+    public void tagLevelIsMoreVerboseThanGlobal(){
+        Log.setLevelForTag("db", LogLevel.DEBUG);
+
+        Log.d("db", "shown");
+        Log.d("web", "hidden");
+        Log.d("hidden without tag");
+        Assert.assertEquals(1, ring.getRecords().size());
+        Assert.assertEquals("db shown"+Log.NEWLINE, ring.getRecords().get(0));
+    }
+
+    @Test
+    public void tagLevelIsLessVerboseThanGlobal(){
+        Log.setLevelForTag("noisy", LogLevel.ERROR);
+
+        Log.i("noisy", "hidden");
+        Log.e("noisy", "shown");
+        Log.i("other", "shown");
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @Test
+    public void subTagTakesLevelOfClosestParent(){
+        Log.setLevelForTag("db", LogLevel.DEBUG);
+        Log.setLevelForTag("db.pool", LogLevel.WARN);
+
+        Log.d("db.query", "shown");
+        Log.i("db.pool.stats", "hidden");
+        Log.w("db.pool.stats", "shown");
+        Log.d("dbx", "hidden");
+        Assert.assertEquals(2, ring.getRecords().size());
+    }
+
+    @Test
+    public void removedTagLevelFallsBackToGlobal(){
+        Log.setLevelForTag("db", LogLevel.TRACE);
+        Log.t("db", "shown");
+        Log.removeLevelForTag("db");
+        Log.t("db", "hidden");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @Test
+    public void globalLevelChangeIsSeenByTagsWithoutLevel(){
+        Log.setLevelForTag("db", LogLevel.ERROR);
+        Log.d("web", "hidden");
+        Log.updateCurrentLogLevel(LogLevel.DEBUG);
+        Log.d("web", "shown");
+        Assert.assertEquals(1, ring.getRecords().size());
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}
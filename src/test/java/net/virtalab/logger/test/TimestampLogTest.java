@@ -0,0 +1,69 @@
+package net.virtalab.logger.test;
+
+import net.virtalab.logger.Color;
+import net.virtalab.logger.Log;
+import net.virtalab.logger.LogLevel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Tests of timestamp rendering
+ */
+public class TimestampLogTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Before
+    public void init(){
+        Log.reset();
+        Log.init(LogLevel.INFO);
+        Log.noLetter();
+        Log.noClassName();
+        Log.changeStreamForLevel(LogLevel.INFO, new PrintStream(out, true));
+    }
+
+    @Test
+    public void millisArePatchedIntoCachedSecond(){
+        Log.setTimestampFormat("yyyy 'SSS' ss.SSS");
+        for(int i=0;i<50;i++){
+            Log.i("tick");
+        }
+        for(String line : out.toString().split(Log.NEWLINE)){
+            String ts = stripColors(line).replace(" tick", "");
+            Assert.assertTrue(ts, ts.matches("\\d{4} SSS \\d{2}\\.\\d{3}"));
+        }
+    }
+
+    @Test
+    public void formatWithSeveralMillisFields(){
+        Log.setTimestampFormat("S|SSSS");
+        Log.i("tick");
+        String ts = stripColors(out.toString()).trim().replace(" tick", "");
+        String[] parts = ts.split("\\|");
+        Assert.assertEquals(4, parts[1].length());
+        Assert.assertEquals(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    @Test
+    public void coarseClock(){
+        Log.enableCoarseClock();
+        Log.setTimestampFormat("yyyy");
+        Log.i("tick");
+        String ts = stripColors(out.toString()).trim().replace(" tick", "");
+        Assert.assertTrue(ts, ts.matches("\\d{4}"));
+    }
+
+    private static String stripColors(String line){
+        return line.replace(Color.GREEN, "").replace(Color.RESET, "");
+    }
+
+    @After
+    public void cleanLog(){
+        Log.reset();
+    }
+}